@@ -66,6 +66,7 @@ import org.imanity.framework.bukkit.tablist.ImanityTabAdapter;
 import org.imanity.framework.bukkit.tablist.ImanityTabHandler;
 import org.imanity.framework.bukkit.visual.VisualBlockHandler;
 import org.imanity.framework.locale.LocaleHandler;
+import org.imanity.framework.locale.LocaleTemplate;
 import org.imanity.framework.locale.player.LocaleData;
 import org.imanity.framework.plugin.PluginClassLoader;
 import org.imanity.framework.plugin.PluginManager;
@@ -229,7 +230,12 @@ public final class Imanity {
     }
 
     public static String translate(Player player, String key, RV... replaceValues) {
-        return StringUtil.replace(Imanity.translate(player, key), replaceValues);
+        LocaleTemplate template = ImanityCommon.getLocale(player.getUniqueId()).template(key);
+        if (template == null) {
+            return StringUtil.replace(CC.translate(key), replaceValues);
+        }
+
+        return template.colored().render(replaceValues);
     }
 
     public static Iterable<String> translateList(Player player, String key, RV... replaceValues) {
@@ -238,13 +244,12 @@ public final class Imanity {
 
     public static String translate(Player player, String key, LocaleRV... replaceValues) {
 
-        String result = Imanity.translate(player, key);
-
-        for (LocaleRV rv : replaceValues) {
-            result = StringUtil.replace(result, rv.getTarget(), rv.getReplacement(player));
+        RV[] values = new RV[replaceValues.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new RV(replaceValues[i].getTarget(), replaceValues[i].getReplacement(player));
         }
 
-        return result;
+        return Imanity.translate(player, key, values);
     }
 
     public static Iterable<String> translateList(Player player, String key, LocaleRV... replaceValues) {
@@ -152,7 +152,9 @@ public class Hologram {
             throw new IllegalArgumentException("cannot move to different world");
         }
 
+        Location from = this.location;
         this.location = location;
+        this.hologramHandler.moveHologram(this, from, location);
 
         if (this.isSpawned()) {
 
@@ -210,8 +212,14 @@ public class Hologram {
     }
 
     public double distaneTo(Player player) {
-        return Math.sqrt(Math.pow(this.getLocation().getX() - player.getLocation().getX(), 2)
-                + Math.pow(this.getLocation().getZ() - player.getLocation().getZ(), 2));
+        Location location = player.getLocation();
+        return Math.sqrt(this.distanceSquared(location.getX(), location.getZ()));
+    }
+
+    public double distanceSquared(double x, double z) {
+        double distanceX = this.location.getX() - x;
+        double distanceZ = this.location.getZ() - z;
+        return distanceX * distanceX + distanceZ * distanceZ;
     }
 
     private void validateSpawned() {
@@ -24,7 +24,12 @@
 
 package org.imanity.framework.bukkit.hologram;
 
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import org.bukkit.Location;
+import org.bukkit.craftbukkit.v1_8_R3.util.LongHash;
 import org.bukkit.entity.Player;
 import org.imanity.framework.Autowired;
 import org.imanity.framework.ImanityCommon;
@@ -33,9 +38,10 @@ import org.imanity.framework.bukkit.metadata.Metadata;
 import org.imanity.framework.bukkit.reflection.ProtocolLibService;
 import org.imanity.framework.metadata.MetadataKey;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
+import java.util.function.Consumer;
 
 public class HologramHandler {
 
@@ -43,9 +49,18 @@ public class HologramHandler {
     private static ProtocolLibService PROTOCOL_LIB_SERVICE;
 
     public static final int DISTANCE_TO_RENDER = 60;
+    public static final int DISTANCE_TO_RENDER_SQUARED = DISTANCE_TO_RENDER * DISTANCE_TO_RENDER;
+    private static final int CHUNK_RADIUS = (DISTANCE_TO_RENDER + 15) >> 4;
+
     public static final MetadataKey<HologramHandler> WORLD_METADATA = MetadataKey.create(ImanityCommon.METADATA_PREFIX + "WorldHolograms", HologramHandler.class);
     public static final MetadataKey<RenderedHolograms> HOLOGRAM_METADATA = MetadataKey.create(ImanityCommon.METADATA_PREFIX + "Holograms", RenderedHolograms.class);
-    private final Map<Integer, Hologram> holograms = new HashMap<>();
+    private final Int2ObjectMap<Hologram> holograms = new Int2ObjectOpenHashMap<>();
+
+    /*
+     * Holograms of this world keyed by the chunk they are in, so finding the ones
+     * near a player only looks at the chunks within render distance.
+     */
+    private final Long2ObjectMap<List<Hologram>> chunks = new Long2ObjectOpenHashMap<>();
 
     public HologramHandler() {
         PROTOCOL_LIB_SERVICE.validEnabled();
@@ -62,7 +77,9 @@ public class HologramHandler {
     }
 
     public void addHologram(Hologram hologram) {
-        this.holograms.put(hologram.getId(), hologram);
+        if (this.holograms.put(hologram.getId(), hologram) == null) {
+            this.chunks.computeIfAbsent(HologramHandler.chunkKey(hologram.getLocation()), key -> new ArrayList<>()).add(hologram);
+        }
     }
 
     public void update(Player player) {
@@ -89,12 +106,59 @@ public class HologramHandler {
         return this.holograms.values();
     }
 
+    /**
+     * Visit every hologram within render distance of the location, only the
+     * chunks around it are looked at.
+     */
+    public void forEachNearbyHologram(Location location, Consumer<Hologram> consumer) {
+        double x = location.getX(), z = location.getZ();
+        int chunkX = location.getBlockX() >> 4, chunkZ = location.getBlockZ() >> 4;
+
+        for (int offsetX = -CHUNK_RADIUS; offsetX <= CHUNK_RADIUS; offsetX++) {
+            for (int offsetZ = -CHUNK_RADIUS; offsetZ <= CHUNK_RADIUS; offsetZ++) {
+                List<Hologram> holograms = this.chunks.get(LongHash.toLong(chunkX + offsetX, chunkZ + offsetZ));
+                if (holograms == null) {
+                    continue;
+                }
+
+                for (Hologram hologram : holograms) {
+                    if (hologram.distanceSquared(x, z) <= DISTANCE_TO_RENDER_SQUARED) {
+                        consumer.accept(hologram);
+                    }
+                }
+            }
+        }
+    }
+
     public RenderedHolograms getRenderedHolograms(Player player) {
         return Metadata.provideForPlayer(player)
                 .getOrPut(HOLOGRAM_METADATA, () -> new RenderedHolograms(player));
     }
 
     public void removeHologram(Hologram hologram) {
-        this.holograms.remove(hologram.getId());
+        if (this.holograms.remove(hologram.getId()) != null) {
+            this.unindex(HologramHandler.chunkKey(hologram.getLocation()), hologram);
+        }
+    }
+
+    protected void moveHologram(Hologram hologram, Location from, Location to) {
+        long fromKey = HologramHandler.chunkKey(from), toKey = HologramHandler.chunkKey(to);
+        if (fromKey == toKey || !this.holograms.containsKey(hologram.getId())) {
+            return;
+        }
+
+        this.unindex(fromKey, hologram);
+        this.chunks.computeIfAbsent(toKey, key -> new ArrayList<>()).add(hologram);
+    }
+
+    private void unindex(long key, Hologram hologram) {
+        List<Hologram> holograms = this.chunks.get(key);
+        if (holograms != null && holograms.remove(hologram) && holograms.isEmpty()) {
+            this.chunks.remove(key);
+        }
+    }
+
+    private static long chunkKey(Location location) {
+        return LongHash.toLong(location.getBlockX() >> 4, location.getBlockZ() >> 4);
     }
 }
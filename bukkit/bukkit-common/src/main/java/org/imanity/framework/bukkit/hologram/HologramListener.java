@@ -38,19 +38,18 @@ import org.imanity.framework.bukkit.player.movement.MovementListener;
 import org.imanity.framework.bukkit.util.TaskUtil;
 import org.imanity.framework.Component;
 
-import java.util.HashSet;
-import java.util.Set;
-
 @Component
 public class HologramListener implements Listener {
 
-    private final Set<Player> toUpdate = new HashSet<>();
-
     public HologramListener() {
         Imanity.registerMovementListener(new MovementListener() {
             @Override
             public void handleUpdateLocation(Player player, Location from, Location to) {
-                toUpdate.add(player);
+                // walking only refreshes the holograms in range when a chunk boundary is crossed, so one can
+                // show or hide up to a chunk late, teleports are refreshed by onTeleport a tick after they land
+                if (from.getBlockX() >> 4 != to.getBlockX() >> 4 || from.getBlockZ() >> 4 != to.getBlockZ() >> 4) {
+                    update(player);
+                }
             }
 
             @Override
@@ -58,16 +57,6 @@ public class HologramListener implements Listener {
 
             }
         }).ignoreSameBlockAndY();
-
-        TaskUtil.runRepeated(() -> {
-            if (Imanity.SHUTTING_DOWN) {
-                return;
-            }
-            toUpdate.removeIf(player -> {
-                this.update(player);
-                return true;
-            });
-        }, 20L);
     }
 
     @EventHandler
@@ -79,7 +68,12 @@ public class HologramListener implements Listener {
         if (from.getBlockX() == to.getBlockX() && from.getBlockZ() == to.getBlockZ()) {
             return;
         }
-        this.update(player);
+        // the player is only at the destination once the event is done
+        TaskUtil.runScheduled(() -> {
+            if (player.isOnline()) {
+                this.update(player);
+            }
+        }, 1L);
     }
 
     @EventHandler
@@ -93,7 +87,6 @@ public class HologramListener implements Listener {
     public void onPlayerQuit(PlayerQuitEvent event) {
         Player player = event.getPlayer();
 
-        this.toUpdate.remove(player);
         Imanity.getHologramHandler(player.getWorld()).reset(player);
     }
 
@@ -24,19 +24,20 @@
 
 package org.imanity.framework.bukkit.hologram.player;
 
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
 import lombok.Getter;
+import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.imanity.framework.bukkit.hologram.Hologram;
 import org.imanity.framework.bukkit.hologram.HologramHandler;
 
-import java.util.ArrayList;
-import java.util.List;
-
 @Getter
 public class RenderedHolograms {
 
     private String worldName;
-    private final List<Integer> holograms = new ArrayList<>();
+    private final IntSet holograms = new IntOpenHashSet();
 
     public RenderedHolograms(Player player) {
         this.worldName = player.getWorld().getName();
@@ -53,48 +54,45 @@ public class RenderedHolograms {
             return;
         }
 
-        this.holograms.removeIf(id -> {
-            Hologram hologram = hologramHandler.getHologram(id);
+        Location location = player.getLocation();
+        IntIterator iterator = this.holograms.iterator();
+        while (iterator.hasNext()) {
+            Hologram hologram = hologramHandler.getHologram(iterator.nextInt());
 
             if (hologram == null) {
-                return true;
+                iterator.remove();
+                continue;
             }
 
-            if (hologram.distaneTo(player) > HologramHandler.DISTANCE_TO_RENDER) {
+            if (hologram.distanceSquared(location.getX(), location.getZ()) > HologramHandler.DISTANCE_TO_RENDER_SQUARED) {
                 hologram.removePlayer(player);
-                return true;
+                iterator.remove();
             }
-
-            return false;
-        });
+        }
     }
 
     public void removeHologram(Player player, Hologram hologram) {
         hologram.removePlayer(player);
-        this.holograms.remove((Integer) hologram.getId());
+        this.holograms.remove(hologram.getId());
     }
 
     public void reset(Player player, HologramHandler hologramHandler) {
-        this.holograms.forEach(id -> {
-            Hologram hologram = hologramHandler.getHologram(id);
-            if (hologram == null) {
-                return;
+        IntIterator iterator = this.holograms.iterator();
+        while (iterator.hasNext()) {
+            Hologram hologram = hologramHandler.getHologram(iterator.nextInt());
+            if (hologram != null) {
+                hologram.removePlayer(player);
             }
-
-            hologram.removePlayer(player);
-        });
+        }
         this.holograms.clear();
     }
 
     public void addNearHolograms(Player player, HologramHandler hologramHandler) {
-        hologramHandler.getHolograms()
-                .stream()
-                .filter(hologram -> !this.holograms.contains(hologram.getId()))
-                .filter(hologram -> hologram.distaneTo(player) <= HologramHandler.DISTANCE_TO_RENDER)
-                .forEach(hologram -> {
-                    hologram.spawnPlayer(player);
-                    this.holograms.add(hologram.getId());
-                });
+        hologramHandler.forEachNearbyHologram(player.getLocation(), hologram -> {
+            if (this.holograms.add(hologram.getId())) {
+                hologram.spawnPlayer(player);
+            }
+        });
     }
 
 }
@@ -24,8 +24,12 @@
 
 package org.imanity.framework.bukkit.impl.server;
 
-import com.google.common.collect.HashMultimap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.shorts.Short2ObjectMap;
+import it.unimi.dsi.fastutil.shorts.Short2ObjectOpenHashMap;
 import org.bukkit.*;
+import org.bukkit.craftbukkit.v1_8_R3.util.LongHash;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.player.PlayerMoveEvent;
@@ -34,6 +38,7 @@ import org.imanity.framework.ImanityCommon;
 import org.imanity.framework.bukkit.Imanity;
 import org.imanity.framework.bukkit.impl.annotation.ServerImpl;
 import org.imanity.framework.bukkit.metadata.Metadata;
+import org.imanity.framework.bukkit.packet.PacketBatch;
 import org.imanity.framework.bukkit.packet.PacketService;
 import org.imanity.framework.bukkit.packet.wrapper.server.WrappedPacketOutScoreboardTeam;
 import org.imanity.framework.bukkit.player.movement.MovementListener;
@@ -53,6 +58,7 @@ import java.lang.reflect.Array;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -220,13 +226,23 @@ public class NormalImplementation implements ServerImplementation {
 
     @Override
     public void setFakeBlocks(Player player, Map<BlockPosition, MaterialData> blockMap, List<BlockPosition> replace, boolean send) {
+        final World world = player.getWorld();
+        this.setFakeBlocks(player, blockMap, replace, blockPosition -> {
+            final org.bukkit.block.Block block = world.getBlockAt(blockPosition.getX(), blockPosition.getY(), blockPosition.getZ());
+            return new MaterialData(block.getType().getId(), block.getData());
+        }, send);
+    }
+
+    @Override
+    public void setFakeBlocks(Player player, Map<BlockPosition, MaterialData> blockMap, List<BlockPosition> replace, Function<BlockPosition, MaterialData> realBlocks, boolean send) {
         ConcurrentMap<BlockPosition, MaterialData> fakeBlockMap = Metadata.provideForPlayer(player).getOrNull(FAKE_BLOCK_MAP);
         if (fakeBlockMap == null) {
             fakeBlockMap = new ConcurrentHashMap<>();
             Metadata.provideForPlayer(player).put(FAKE_BLOCK_MAP, fakeBlockMap);
         }
 
-        HashMultimap<CoordXZ, BlockPositionData> map = HashMultimap.create();
+        // the changes of every chunk, by the position in the chunk the client expects
+        final Long2ObjectMap<Short2ObjectMap<MaterialData>> changes = new Long2ObjectOpenHashMap<>();
         for (final Map.Entry<BlockPosition, MaterialData> entry : blockMap.entrySet()) {
             final BlockPosition blockPosition = entry.getKey();
             MaterialData materialData = entry.getValue();
@@ -234,47 +250,31 @@ public class NormalImplementation implements ServerImplementation {
                 materialData = new MaterialData(0);
             }
             final MaterialData previous = fakeBlockMap.put(blockPosition, materialData);
-            if (send && previous != materialData) {
-                final int x = blockPosition.getX();
-                final int y = blockPosition.getY();
-                final int z = blockPosition.getZ();
-                final int chunkX = x >> 4;
-                final int chunkZ = z >> 4;
-                final int posX = x - (chunkX << 4);
-                final int posZ = z - (chunkZ << 4);
-                map.put(new CoordXZ(chunkX, chunkZ), new BlockPositionData(new BlockPosition(posX, y, posZ, player.getWorld().getName()), materialData));
+            if (send && !materialData.equals(previous)) {
+                this.addBlockChange(changes, blockPosition, materialData);
             }
         }
         for (final BlockPosition blockPosition : replace) {
-            if (fakeBlockMap.remove(blockPosition) != null) {
-                final int x2 = blockPosition.getX();
-                final int y2 = blockPosition.getY();
-                final int z2 = blockPosition.getZ();
-                final org.bukkit.block.Block blockData = player.getWorld().getBlockAt(blockPosition.getX(), blockPosition.getY(), blockPosition.getZ());
-                final int type = blockData.getType().getId();
-                final int data = blockData.getData();
-                final int chunkX2 = x2 >> 4;
-                final int chunkZ2 = z2 >> 4;
-                final int posX2 = x2 - (chunkX2 << 4);
-                final int posZ2 = z2 - (chunkZ2 << 4);
-                map.put(new CoordXZ(chunkX2, chunkZ2), new BlockPositionData(new BlockPosition(posX2, y2, posZ2, player.getWorld().getName()), new MaterialData(type, (byte) data)));
+            if (fakeBlockMap.remove(blockPosition) != null && send) {
+                this.addBlockChange(changes, blockPosition, realBlocks.apply(blockPosition));
             }
         }
-        if (send) {
-            for (final Map.Entry<CoordXZ, Collection<BlockPositionData>> entry2 : map.asMap().entrySet()) {
-                final CoordXZ chunkPosition = entry2.getKey();
-                final Collection<BlockPositionData> blocks = entry2.getValue();
+
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        try (PacketBatch batch = PacketService.newBatch()) {
+            for (Long2ObjectMap.Entry<Short2ObjectMap<MaterialData>> entry : changes.long2ObjectEntrySet()) {
+                final Short2ObjectMap<MaterialData> blocks = entry.getValue();
 
                 PacketWrapper packet = PacketWrapper.createByPacketName("PacketPlayOutMultiBlockChange");
                 Object info = Array.newInstance(BLOCK_INFO_TYPE, blocks.size());
 
                 int i = 0;
-                for (BlockPositionData positionData : blocks) {
-                    BlockPosition b = positionData.getBlockPosition();
-                    MaterialData materialData = positionData.getMaterialData();
-
-                    short s = (short) ((b.getX() & 15) << 12 | (b.getZ() & 15) << 8 | b.getY());
-                    Object blockNMS = this.toBlockNMS(materialData);
+                for (Short2ObjectMap.Entry<MaterialData> block : blocks.short2ObjectEntrySet()) {
+                    short s = block.getShortKey();
+                    Object blockNMS = this.toBlockNMS(block.getValue());
 
                     Array.set(info, i, BLOCK_INFO_CONSTRUCTOR.resolve(
                             new Object[] {s, blockNMS},
@@ -283,15 +283,28 @@ public class NormalImplementation implements ServerImplementation {
                     i++;
                 }
 
-                packet.setPacketValueByType(CHUNK_COORD_PAIR_TYPE, CHUNK_COORD_PAIR_CONSTRUCTOR.newInstance(chunkPosition.x, chunkPosition.z));
+                packet.setPacketValueByType(CHUNK_COORD_PAIR_TYPE, CHUNK_COORD_PAIR_CONSTRUCTOR.newInstance(LongHash.msw(entry.getLongKey()), LongHash.lsw(entry.getLongKey())));
 
                 packet.setPacketValueByType(info.getClass(), info);
 
-                MinecraftReflection.sendPacket(player, packet);
+                batch.send(player, packet.getPacket());
             }
         }
     }
 
+    private void addBlockChange(Long2ObjectMap<Short2ObjectMap<MaterialData>> changes, BlockPosition blockPosition, MaterialData materialData) {
+        final int x = blockPosition.getX();
+        final int z = blockPosition.getZ();
+
+        Short2ObjectMap<MaterialData> blocks = changes.get(LongHash.toLong(x >> 4, z >> 4));
+        if (blocks == null) {
+            blocks = new Short2ObjectOpenHashMap<>();
+            changes.put(LongHash.toLong(x >> 4, z >> 4), blocks);
+        }
+
+        blocks.put((short) ((x & 15) << 12 | (z & 15) << 8 | blockPosition.getY()), materialData);
+    }
+
     @Override
     public void clearFakeBlocks(Player player, boolean send) {
         ConcurrentMap<BlockPosition, MaterialData> fakeBlockMap = Metadata.provideForPlayer(player).getOrNull(FAKE_BLOCK_MAP);
@@ -44,6 +44,7 @@ import org.imanity.framework.reflect.Reflect;
 import org.imanity.framework.reflect.ReflectLookup;
 
 import java.util.*;
+import java.util.function.Function;
 
 public interface ServerImplementation {
 
@@ -104,6 +105,12 @@ public interface ServerImplementation {
 
     void setFakeBlocks(Player player, Map<BlockPosition, MaterialData> positions, List<BlockPosition> toRemove, boolean send);
 
+    /**
+     * Same as {@link #setFakeBlocks(Player, Map, List, boolean)}, but the blocks restored for the
+     * removed positions come from realBlocks instead of the world, so it can be used off the main thread
+     */
+    void setFakeBlocks(Player player, Map<BlockPosition, MaterialData> positions, List<BlockPosition> toRemove, Function<BlockPosition, MaterialData> realBlocks, boolean send);
+
     void clearFakeBlocks(Player player, boolean send);
 
     void sendActionBar(Player player, String message);
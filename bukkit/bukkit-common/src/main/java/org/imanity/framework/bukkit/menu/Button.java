@@ -38,7 +38,7 @@ public abstract class Button {
 				.data(data)
 				.name(title)
 				.build()
-		).cancel().build();
+		).cancel().staticItem().build();
 	}
 
 	public static void playFail(Player player) {
@@ -80,4 +80,14 @@ public abstract class Button {
 		return (false);
 	}
 
+	/**
+	 * Whether the item of this button never changes, the item of a static button
+	 * is only built once while it stays in the menu
+	 *
+	 * @return true if {@link #getButtonItem(Player)} always returns the same item
+	 */
+	public boolean isStatic() {
+		return (false);
+	}
+
 }
\ No newline at end of file
@@ -46,6 +46,7 @@ public class ButtonBuilder {
     private Function<Player, ItemStack> itemStackFunction;
     private final List<CancelConsumer> cancelConsumers;
     private final List<Callback> callbacks;
+    private boolean staticItem;
 
     public ButtonBuilder() {
         this.cancelConsumers = new ArrayList<>();
@@ -75,6 +76,14 @@ public class ButtonBuilder {
         return this;
     }
 
+    /**
+     * Build the item once, for buttons whose item doesn't depend on the player or time
+     */
+    public ButtonBuilder staticItem() {
+        this.staticItem = true;
+        return this;
+    }
+
     public ButtonBuilder callback(Callback callback) {
         this.callbacks.add(callback);
         return this;
@@ -97,6 +106,7 @@ public class ButtonBuilder {
 
     public ButtonBuilder cleanup() {
         this.itemStackFunction = null;
+        this.staticItem = false;
         this.cancelConsumers.clear();
         this.callbacks.clear();
         return this;
@@ -107,12 +117,18 @@ public class ButtonBuilder {
             throw new IllegalArgumentException("No Item Registered");
         }
 
+        final boolean staticItem = this.staticItem;
         return new Button() {
             @Override
             public ItemStack getButtonItem(Player player) {
                 return itemStackFunction.apply(player);
             }
 
+            @Override
+            public boolean isStatic() {
+                return staticItem;
+            }
+
             @Override
             public void clicked(Player player, int slot, ClickType clickType, int hotbarButton) {
                 for (Callback callback : callbacks) {
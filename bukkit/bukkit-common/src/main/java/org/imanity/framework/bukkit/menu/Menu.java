@@ -26,30 +26,20 @@ package org.imanity.framework.bukkit.menu;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
-import org.bukkit.event.EventPriority;
-import org.bukkit.event.entity.PlayerDeathEvent;
 import org.bukkit.event.inventory.ClickType;
 import org.bukkit.event.inventory.InventoryClickEvent;
-import org.bukkit.event.inventory.InventoryCloseEvent;
-import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.Inventory;
-import org.bukkit.plugin.Plugin;
-import org.bukkit.plugin.java.JavaPlugin;
-import org.imanity.framework.bukkit.Imanity;
-import org.imanity.framework.bukkit.listener.events.Events;
-import org.imanity.framework.bukkit.metadata.Metadata;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
 import org.imanity.framework.bukkit.util.BukkitUtil;
-import org.imanity.framework.metadata.MetadataKey;
-import org.imanity.framework.metadata.MetadataMap;
 import org.imanity.framework.util.CC;
-import org.imanity.framework.util.Stacktrace;
 import org.imanity.framework.util.terminable.TerminableConsumer;
 import org.imanity.framework.util.terminable.composite.CompositeTerminable;
 import org.jetbrains.annotations.NotNull;
@@ -60,45 +50,29 @@ import java.util.function.Function;
 
 @Getter
 @Setter
-public abstract class Menu implements TerminableConsumer {
+public abstract class Menu implements TerminableConsumer, InventoryHolder {
 
-    private static final MetadataKey<Menu> METADATA = MetadataKey.create("imanity:menu", Menu.class);
-    private static final Map<Class<? extends Menu>, List<Menu>> MENU_BY_TYPE = new ConcurrentHashMap<>();
+    private static final Map<UUID, Menu> MENU_BY_UUID = new ConcurrentHashMap<>();
+    private static final Map<Class<? extends Menu>, Set<Menu>> MENU_BY_TYPE = new ConcurrentHashMap<>();
 
     private static void addMenu(Menu menu) {
-        List<Menu> list;
-        final Class<? extends Menu> type = menu.getClass();
-        if (MENU_BY_TYPE.containsKey(type)) {
-            list = MENU_BY_TYPE.get(type);
-        } else {
-            list = new ArrayList<>();
-            MENU_BY_TYPE.put(type, list);
-        }
-
-        list.add(menu);
+        MENU_BY_TYPE.computeIfAbsent(menu.getClass(), type -> ConcurrentHashMap.newKeySet()).add(menu);
     }
 
     private static void removeMenu(Menu menu) {
-        final Class<? extends Menu> type = menu.getClass();
-        if (!MENU_BY_TYPE.containsKey(type)) {
-            return;
-        }
-
-        final List<Menu> list = MENU_BY_TYPE.get(type);
-        list.remove(menu);
-
-        if (list.isEmpty()) {
-            MENU_BY_TYPE.remove(type);
-        }
+        MENU_BY_TYPE.computeIfPresent(menu.getClass(), (type, menus) -> {
+            menus.remove(menu);
+            return menus.isEmpty() ? null : menus;
+        });
     }
 
     public static Menu getMenuByUuid(UUID uuid) {
-        return Metadata.provideForPlayer(uuid).getOrNull(METADATA);
+        return MENU_BY_UUID.get(uuid);
     }
 
     public static <T extends Menu> List<T> getMenusByType(Class<T> type) {
         List<T> menuList = new ArrayList<>();
-        for (Menu menu : MENU_BY_TYPE.get(type)) {
+        for (Menu menu : MENU_BY_TYPE.getOrDefault(type, Collections.emptySet())) {
             menuList.add(type.cast(menu));
         }
         return menuList;
@@ -110,6 +84,17 @@ public abstract class Menu implements TerminableConsumer {
     protected Player player;
     private Inventory inventory;
 
+    /*
+     * What the open inventory was last filled with, so a render only touches
+     * the slots whose item changed and reopens only for a new title or size
+     */
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    private ItemStack[] sentItems;
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    private String rawTitle, title;
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    private Map<Button, ItemStack> staticItems = new IdentityHashMap<>();
+
     private boolean opening, rendering;
     private long openMillis, lastAccessMillis;
     private Button placeholderButton = Button.placeholder(Material.STAINED_GLASS_PANE, (byte) 15, " ");
@@ -249,13 +234,15 @@ public abstract class Menu implements TerminableConsumer {
         this.openMillis = System.currentTimeMillis();
 
         this.player = player;
-        Metadata.provide(player).put(METADATA, this);
+        // the previous menu's close event comes after this one opened, it only removes the previous menu
+        Menu previous = MENU_BY_UUID.put(player.getUniqueId(), this);
+        if (previous != null && previous != this) {
+            previous.remove();
+        }
         Menu.addMenu(this);
 
         this.render(true);
         this.onOpen(player);
-
-        this.registerListeners();
     }
 
     public void close() {
@@ -268,11 +255,7 @@ public abstract class Menu implements TerminableConsumer {
         }
         this.opening = false;
 
-        MetadataMap metadataMap = Metadata.provideForPlayer(this.player);
-        Menu existing = metadataMap.getOrNull(METADATA);
-        if (existing == this) {
-            metadataMap.remove(METADATA);
-        }
+        MENU_BY_UUID.remove(this.player.getUniqueId(), this);
         Menu.removeMenu(this);
 
         this.compositeTerminable.closeAndReportException();
@@ -280,102 +263,55 @@ public abstract class Menu implements TerminableConsumer {
 
         this.player = null;
         this.buttonsMap.clear();
+        this.staticItems.clear();
+        this.sentItems = null;
         this.inventory.clear();
     }
 
-    private void registerListeners() {
-        Plugin plugin;
+    /*
+     * Called by MenuListener for clicks in the inventory of this menu
+     */
+    void handleClick(InventoryClickEvent event) {
+        if (this.player == null) {
+            return;
+        }
 
-        try {
-            plugin = JavaPlugin.getProvidingPlugin(this.getClass());
-        } catch (Throwable ignored) {
-            plugin = Imanity.PLUGIN;
+        int slot = event.getSlot();
+        if (slot != event.getRawSlot()) {
+            if ((event.getClick() == ClickType.SHIFT_LEFT || event.getClick() == ClickType.SHIFT_RIGHT)) {
+                event.setCancelled(true);
+            }
+            return;
         }
 
-        Events.subscribe(PlayerQuitEvent.class)
-                .priority(EventPriority.HIGH)
-                .filter(event -> event.getPlayer() == this.player)
-                .listen(event -> {
-                    Player player = event.getPlayer();
-                    player.closeInventory();
-                    this.remove();
-                })
-                .build(plugin)
-                .bindWith(this);
-
-        Events.subscribe(PlayerDeathEvent.class)
-                .priority(EventPriority.HIGH)
-                .filter(event -> event.getEntity() == this.player)
-                .listen(event -> {
-                    Player player = event.getEntity();
-                    player.closeInventory();
-                    this.remove();
-                })
-                .build(plugin)
-                .bindWith(this);
-
-        Events.subscribe(InventoryClickEvent.class)
-                .priority(EventPriority.MONITOR)
-                .filter(event -> event.getInventory().getHolder() != null)
-                .filter(event -> event.getInventory().getHolder().equals(this.player))
-                .listen(event -> {
-                    if (this.player == null) {
-                        return;
-                    }
+        if (this.buttonsMap.containsKey(slot)) {
+            Button button = this.buttonsMap.get(slot);
+            boolean cancel = button.shouldCancel(player, slot, event.getClick());
 
-                    int slot = event.getSlot();
-                    if (slot != event.getRawSlot()) {
-                        if ((event.getClick() == ClickType.SHIFT_LEFT || event.getClick() == ClickType.SHIFT_RIGHT)) {
-                            event.setCancelled(true);
-                        }
-                        return;
-                    }
+            if (!cancel && (event.getClick() == ClickType.SHIFT_LEFT || event.getClick() == ClickType.SHIFT_RIGHT)) {
+                event.setCancelled(true);
 
-                    if (this.buttonsMap.containsKey(slot)) {
-                        Button button = this.buttonsMap.get(slot);
-                        boolean cancel = button.shouldCancel(player, slot, event.getClick());
-
-                        if (!cancel && (event.getClick() == ClickType.SHIFT_LEFT || event.getClick() == ClickType.SHIFT_RIGHT)) {
-                            event.setCancelled(true);
-
-                            if (event.getCurrentItem() != null) {
-                                player.getInventory().addItem(event.getCurrentItem());
-                            }
-                        } else {
-                            event.setCancelled(cancel);
-                        }
-
-                        button.clicked(player, slot, event.getClick(), event.getHotbarButton());
-                        if (!this.opening) {
-                            return;
-                        }
-                        this.lastAccessMillis = System.currentTimeMillis();
-
-                        if (event.isCancelled()) {
-                            BukkitUtil.delayedUpdateInventory(player);
-                        }
-                    } else {
-                        if ((event.getClick() == ClickType.SHIFT_LEFT || event.getClick() == ClickType.SHIFT_RIGHT)) {
-                            event.setCancelled(true);
-                        }
-                    }
-                })
-                .build(plugin)
-                .bindWith(this);
-
-        Events.subscribe(InventoryCloseEvent.class)
-                .priority(EventPriority.HIGH)
-                .filter(event -> event.getInventory().getHolder() != null)
-                .filter(event -> event.getInventory().getHolder().equals(this.player))
-                .listen(event -> {
-                    try {
-                        this.remove();
-                    } catch (Throwable throwable) {
-                        Stacktrace.print(throwable);
-                    }
-                })
-                .build(plugin)
-                .bindWith(this);
+                if (event.getCurrentItem() != null) {
+                    player.getInventory().addItem(event.getCurrentItem());
+                }
+            } else {
+                event.setCancelled(cancel);
+            }
+
+            button.clicked(player, slot, event.getClick(), event.getHotbarButton());
+            if (!this.opening) {
+                return;
+            }
+            this.lastAccessMillis = System.currentTimeMillis();
+
+            if (event.isCancelled()) {
+                BukkitUtil.delayedUpdateInventory(player);
+            }
+        } else {
+            if ((event.getClick() == ClickType.SHIFT_LEFT || event.getClick() == ClickType.SHIFT_RIGHT)) {
+                event.setCancelled(true);
+            }
+        }
     }
 
     protected final void render() {
@@ -388,49 +324,66 @@ public abstract class Menu implements TerminableConsumer {
         }
         this.lastAccessMillis = System.currentTimeMillis();
 
-        Map<Integer, Button> previousButtons = firstInitial ? null : ImmutableMap.copyOf(this.buttonsMap);
-
         this.rendering = true;
         this.draw(firstInitial);
         this.rendering = false;
 
-        Inventory inventory = null;
         int size = this.getSize() == -1 ? this.size(this.buttonsMap) : this.getSize();
 
-        String title = CC.translate(this.getTitle());
-        if (title.length() > 32) {
-            title = title.substring(0, 32);
+        String rawTitle = this.getTitle();
+        if (this.title == null || !rawTitle.equals(this.rawTitle)) {
+            String title = CC.translate(rawTitle);
+            if (title.length() > 32) {
+                title = title.substring(0, 32);
+            }
+            this.rawTitle = rawTitle;
+            this.title = title;
         }
 
+        Inventory inventory = null;
         if (player.getOpenInventory() != null) {
             Inventory topInventory = player.getOpenInventory().getTopInventory();
-            if (this.inventory != null && this.inventory.equals(topInventory) && size == topInventory.getSize()) {
+            if (this.inventory != null && this.inventory.equals(topInventory) && size == topInventory.getSize() && this.title.equals(topInventory.getTitle())) {
                 inventory = this.inventory;
             }
         }
 
-        if (inventory == null) {
-            inventory = Bukkit.createInventory(player, size, title);
+        boolean reopen = inventory == null;
+        if (reopen) {
+            // the menu holds its own inventory so its events resolve to this menu, not the player's current one
+            inventory = Bukkit.createInventory(this, size, this.title);
+            this.sentItems = new ItemStack[size];
         }
 
-        for (final Map.Entry<Integer, Button> buttonEntry : this.buttonsMap.int2ObjectEntrySet()) {
-            int slot = buttonEntry.getKey();
-            Button button = buttonEntry.getValue();
-            if (previousButtons == null || previousButtons.get(slot) != button) {
-                inventory.setItem(slot, button.getButtonItem(player));
-            }
-        }
+        Map<Button, ItemStack> staticItems = new IdentityHashMap<>();
+        for (int slot = 0; slot < size; slot++) {
+            Button button = this.buttonsMap.get(slot);
+            ItemStack itemStack = null;
 
-        if (previousButtons != null) {
-            for (int slot : previousButtons.keySet()) {
-                if (!this.buttonsMap.containsKey(slot)) {
-                    inventory.setItem(slot, null);
+            if (button != null) {
+                if (button.isStatic()) {
+                    itemStack = this.staticItems.get(button);
+                    if (itemStack == null) {
+                        itemStack = button.getButtonItem(player);
+                    }
+                    staticItems.put(button, itemStack);
+                } else {
+                    itemStack = button.getButtonItem(player);
                 }
             }
+
+            // inventory updates are sent per changed slot by the server when the window is kept
+            if (!Objects.equals(itemStack, this.sentItems[slot])) {
+                inventory.setItem(slot, itemStack);
+                this.sentItems[slot] = itemStack != null ? itemStack.clone() : null;
+            }
         }
+        this.staticItems = staticItems;
 
         this.inventory = inventory;
-        player.openInventory(inventory);
+        if (reopen) {
+            player.openInventory(inventory);
+        }
     }
 
     public abstract void draw(boolean firstInitial);
@@ -26,12 +26,12 @@ package org.imanity.framework.bukkit.nametag;
 
 import org.jetbrains.annotations.Nullable;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class NameTagList {
 
-    private Map<String, NameTagInfo> infos = new HashMap<>();
+    private Map<String, NameTagInfo> infos = new ConcurrentHashMap<>();
 
     @Nullable
     public NameTagInfo getTeamFor(String name) {
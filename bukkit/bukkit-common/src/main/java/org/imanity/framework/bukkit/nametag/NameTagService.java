@@ -31,13 +31,16 @@ import org.bukkit.entity.Player;
 import org.imanity.framework.*;
 import org.imanity.framework.bukkit.Imanity;
 import org.imanity.framework.bukkit.metadata.Metadata;
+import org.imanity.framework.bukkit.packet.PacketBatch;
+import org.imanity.framework.bukkit.packet.PacketService;
+import org.imanity.framework.bukkit.packet.wrapper.server.WrappedPacketOutScoreboardTeam;
 import org.imanity.framework.metadata.MetadataKey;
 import org.imanity.framework.bukkit.nametag.impl.DefaultNameTagAdapter;
 import org.imanity.framework.util.Stacktrace;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -50,7 +53,11 @@ public class NameTagService {
 
     private Map<String, NameTagInfo> registeredTeams;
     private List<NameTagAdapter> adapters;
-    private Queue<NameTagUpdate> pendingUpdates;
+    /*
+     * Pending updates are a set so the same pair requested several times
+     * before the next update only gets computed once.
+     */
+    private Set<NameTagUpdate> pendingUpdates;
     private ScheduledExecutorService executorService;
 
     @PreInitialize
@@ -72,9 +79,9 @@ public class NameTagService {
     public void init() {
 
         this.adapters = new LinkedList<>();
-        this.registeredTeams = new HashMap<>();
+        this.registeredTeams = new ConcurrentHashMap<>();
 
-        this.pendingUpdates = new ConcurrentLinkedQueue<>();
+        this.pendingUpdates = ConcurrentHashMap.newKeySet();
 
         this.executorService = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
             .setDaemon(true)
@@ -93,9 +100,22 @@ public class NameTagService {
 
     private void update() {
 
-        NameTagUpdate update;
-        while ((update = this.pendingUpdates.poll()) != null) {
-            this.applyUpdate(update);
+        if (this.pendingUpdates.isEmpty()) {
+            return;
+        }
+
+        // viewer -> the players whose tag has to be recomputed for that viewer
+        Map<Player, Set<Player>> changes = new HashMap<>();
+        Iterator<NameTagUpdate> iterator = this.pendingUpdates.iterator();
+        while (iterator.hasNext()) {
+            NameTagUpdate update = iterator.next();
+            iterator.remove();
+
+            this.collectUpdate(update, changes);
+        }
+
+        try (PacketBatch batch = PacketService.newBatch()) {
+            changes.forEach((refreshFor, targets) -> this.updateForInternal(refreshFor, targets, batch));
         }
 
     }
@@ -161,42 +181,60 @@ public class NameTagService {
         Imanity.getPlayers().forEach(this::updateFromThirdSide);
     }
 
-    protected void applyUpdate(NameTagUpdate update) {
+    protected void collectUpdate(NameTagUpdate update, Map<Player, Set<Player>> changes) {
         Player toRefresh = Bukkit.getPlayer(update.getToRefresh());
         if (toRefresh == null) {
             return;
         }
 
         if (update.getRefreshFor() == null) {
-            Imanity.getPlayers().forEach(refreshFor -> this.updateForInternal(toRefresh, refreshFor));
+            Imanity.getPlayers().forEach(refreshFor -> changes.computeIfAbsent(refreshFor, ignored -> new HashSet<>()).add(toRefresh));
         } else {
             Player refreshFor = Bukkit.getPlayer(update.getRefreshFor());
             if (refreshFor != null) {
-                this.updateForInternal(toRefresh, refreshFor);
+                changes.computeIfAbsent(refreshFor, ignored -> new HashSet<>()).add(toRefresh);
             }
         }
     }
 
-    private void updateForInternal(Player toRefresh, Player refreshFor) {
-        NameTagInfo info = null;
+    private void updateForInternal(Player refreshFor, Set<Player> targets, PacketBatch batch) {
+        NameTagList list = Metadata
+                .provideForPlayer(refreshFor)
+                .getOrPut(TEAM_INFO_KEY, NameTagList::new);
 
-        for (NameTagAdapter adapter : this.adapters) {
-            info = adapter.fetch(refreshFor, toRefresh);
-            if (info != null) {
-                break;
+        // teams are shared per prefix and suffix, so identity tells whether the tag changed
+        Map<NameTagInfo, List<String>> moved = new IdentityHashMap<>();
+        for (Player toRefresh : targets) {
+            NameTagInfo info = this.fetch(refreshFor, toRefresh);
+            if (info == null) {
+                continue;
             }
-        }
 
-        if (info == null) {
-            return;
+            String name = toRefresh.getName();
+            if (list.getTeamFor(name) == info) {
+                continue;
+            }
+
+            list.putTeamFor(name, info);
+            moved.computeIfAbsent(info, ignored -> new ArrayList<>()).add(name);
         }
 
-        NameTagList list = Metadata
-                .provideForPlayer(refreshFor)
-                .getOrPut(TEAM_INFO_KEY, NameTagList::new);
+        moved.forEach((info, names) -> batch.send(refreshFor, WrappedPacketOutScoreboardTeam.builder()
+                .name(info.getName())
+                .nameSets(names)
+                .action(3)
+                .build()));
+    }
 
-        list.putTeamFor(toRefresh.getName(), info);
-        Imanity.IMPLEMENTATION.sendMember(refreshFor, info.getName(), Collections.singleton(toRefresh.getName()), 3);
+    @Nullable
+    private NameTagInfo fetch(Player refreshFor, Player toRefresh) {
+        for (NameTagAdapter adapter : this.adapters) {
+            NameTagInfo info = adapter.fetch(refreshFor, toRefresh);
+            if (info != null) {
+                return info;
+            }
+        }
+        return null;
     }
 
     @Nullable
@@ -218,7 +256,11 @@ public class NameTagService {
         }
 
         NameTagInfo newTeam = new NameTagInfo(prefix, suffix);
-        this.registeredTeams.put(this.toKey(prefix, suffix), newTeam);
+        NameTagInfo previous = this.registeredTeams.putIfAbsent(this.toKey(prefix, suffix), newTeam);
+        if (previous != null) {
+            return previous;
+        }
+
         for (Player player : Imanity.getPlayers()) {
             this.sendTeam(player, newTeam, 0);
         }
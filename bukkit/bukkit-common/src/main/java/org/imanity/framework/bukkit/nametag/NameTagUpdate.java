@@ -24,12 +24,14 @@
 
 package org.imanity.framework.bukkit.nametag;
 
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import org.bukkit.entity.Player;
 
 import java.util.UUID;
 
 @Getter
+@EqualsAndHashCode
 final class NameTagUpdate
 {
     private UUID toRefresh;
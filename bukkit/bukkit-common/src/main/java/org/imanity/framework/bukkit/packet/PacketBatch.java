@@ -0,0 +1,110 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Imanity
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package org.imanity.framework.bukkit.packet;
+
+import org.bukkit.entity.Player;
+import org.imanity.framework.bukkit.packet.wrapper.PacketContainer;
+import org.imanity.framework.bukkit.packet.wrapper.SendableWrapper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects packets per player and writes each player's packets with a single
+ * channel flush, instead of one flush per packet. Not thread safe, a batch
+ * belongs to the thread that fills it.
+ *
+ * <pre>
+ * try (PacketBatch batch = packetService.batch()) {
+ *     batch.send(player, firstPacket);
+ *     batch.send(player, secondPacket);
+ * }
+ * </pre>
+ */
+public class PacketBatch implements AutoCloseable {
+
+    private final PacketService packetService;
+    private final Map<Player, List<Object>> queuedPackets = new LinkedHashMap<>();
+
+    PacketBatch(PacketService packetService) {
+        this.packetService = packetService;
+    }
+
+    public PacketBatch send(Player player, SendableWrapper sendableWrapper) {
+        return this.send(player, sendableWrapper.asPacketContainer());
+    }
+
+    public PacketBatch send(Player player, PacketContainer packetContainer) {
+        List<Object> packets = this.queuedPackets.computeIfAbsent(player, ignored -> new ArrayList<>());
+
+        packets.add(packetContainer.getMainPacket());
+        packets.addAll(packetContainer.getExtraPackets());
+        return this;
+    }
+
+    public PacketBatch send(Player player, Object nmsPacket) {
+        this.queuedPackets.computeIfAbsent(player, ignored -> new ArrayList<>()).add(nmsPacket);
+        return this;
+    }
+
+    /**
+     * Queue the same packets for every player, the NMS packets are only built
+     * once and shared.
+     */
+    public PacketBatch send(Iterable<? extends Player> players, SendableWrapper sendableWrapper) {
+        PacketContainer packetContainer = sendableWrapper.asPacketContainer();
+        for (Player player : players) {
+            this.send(player, packetContainer);
+        }
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return this.queuedPackets.isEmpty();
+    }
+
+    /**
+     * Hand every queued packet to the players' channels, one flush per player.
+     */
+    public void flush() {
+        if (this.queuedPackets.isEmpty()) {
+            return;
+        }
+
+        for (Map.Entry<Player, List<Object>> entry : this.queuedPackets.entrySet()) {
+            this.packetService.getNettyInjection().sendPackets(entry.getKey(), entry.getValue());
+        }
+        this.queuedPackets.clear();
+    }
+
+    @Override
+    public void close() {
+        this.flush();
+    }
+
+}
@@ -30,8 +30,12 @@ import org.bukkit.entity.Player;
 import org.imanity.framework.bukkit.packet.type.PacketType;
 import org.imanity.framework.bukkit.packet.wrapper.WrappedPacket;
 import org.imanity.framework.bukkit.reflection.resolver.ConstructorResolver;
-import org.imanity.framework.bukkit.reflection.wrapper.ConstructorWrapper;
+import org.imanity.framework.util.AccessUtil;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
 import java.util.Map;
 
 public enum PacketDirection {
@@ -39,13 +43,23 @@ public enum PacketDirection {
     READ,
     WRITE;
 
+    private static final MethodType WRAPPER_FACTORY_TYPE = MethodType.methodType(WrappedPacket.class, Player.class, Object.class);
+
     private final Multimap<Byte, PacketListener> registeredPacketListeners = HashMultimap.create();
     private Map<Byte, Class<? extends WrappedPacket>> typeToWrappedPacket;
 
+    // wrapper constructors adapted to (Player, Object) WrappedPacket, indexed by packet id
+    private MethodHandle[] wrapperFactories;
+
     public void register(Map<Byte, Class<? extends WrappedPacket>> typeToWrappedPacket) {
         if (this.typeToWrappedPacket != null) {
             throw new IllegalStateException("The Wrapped Packet are already registered!");
         }
+
+        MethodHandle[] wrapperFactories = new MethodHandle[Byte.MAX_VALUE + 1];
+        typeToWrappedPacket.forEach((id, wrappedPacketClass) -> wrapperFactories[id] = PacketDirection.createWrapperFactory(wrappedPacketClass));
+
+        this.wrapperFactories = wrapperFactories;
         this.typeToWrappedPacket = typeToWrappedPacket;
     }
 
@@ -71,27 +85,22 @@ public enum PacketDirection {
 
     public WrappedPacket getWrappedFromNMS(Player player, byte id, Object packet) {
 
-        Class<? extends WrappedPacket> wrappedPacketClass = this.typeToWrappedPacket.getOrDefault(id, null);
+        MethodHandle wrapperFactory = id >= 0 ? this.wrapperFactories[id] : null;
 
-        if (wrappedPacketClass == null) {
+        if (wrapperFactory == null) {
+            if (this.typeToWrappedPacket.containsKey(id)) {
+                throw new IllegalArgumentException("The wrapper " + this.typeToWrappedPacket.get(id).getName() + " has no (Player, Object) or (Object) constructor!");
+            }
             return new WrappedPacket(player, packet);
         }
 
-
-        ConstructorResolver constructorResolver = new ConstructorResolver(wrappedPacketClass);
-        ConstructorWrapper<? extends WrappedPacket> constructor = constructorResolver.resolveWrapper(new Class[] { Player.class, Object.class });
-
-        if (constructor.exists()) {
-            return constructor.newInstance(player, packet);
-        }
-
-        constructor = constructorResolver.resolveWrapper(new Class[] { Object.class });
-
-        if (constructor.exists()) {
-            return constructor.newInstance(packet);
+        try {
+            return (WrappedPacket) wrapperFactory.invokeExact(player, packet);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable throwable) {
+            throw new RuntimeException(throwable);
         }
-
-        throw new IllegalArgumentException();
     }
 
     public WrappedPacket getWrappedFromNMS(Player player, byte id) {
@@ -113,4 +122,27 @@ public enum PacketDirection {
 
     }
 
+    /**
+     * Resolve the wrapper constructor once, so wrapping a packet is a single
+     * handle invocation instead of a constructor search.
+     */
+    private static MethodHandle createWrapperFactory(Class<? extends WrappedPacket> wrappedPacketClass) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+        try {
+            Constructor<? extends WrappedPacket> constructor = wrappedPacketClass.getDeclaredConstructor(Player.class, Object.class);
+            return lookup.unreflectConstructor(AccessUtil.setAccessible(constructor)).asType(WRAPPER_FACTORY_TYPE);
+        } catch (ReflectiveOperationException ignored) {
+        }
+
+        try {
+            Constructor<? extends WrappedPacket> constructor = wrappedPacketClass.getDeclaredConstructor(Object.class);
+            MethodHandle handle = lookup.unreflectConstructor(AccessUtil.setAccessible(constructor));
+            return MethodHandles.dropArguments(handle, 0, Player.class).asType(WRAPPER_FACTORY_TYPE);
+        } catch (ReflectiveOperationException ignored) {
+        }
+
+        return null;
+    }
+
 }
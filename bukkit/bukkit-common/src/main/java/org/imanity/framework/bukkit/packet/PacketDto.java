@@ -25,23 +25,44 @@
 package org.imanity.framework.bukkit.packet;
 
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import org.imanity.framework.bukkit.packet.wrapper.WrappedPacket;
 
-@Getter
-@RequiredArgsConstructor
+import java.util.function.Supplier;
+
 public class PacketDto {
 
-    private final WrappedPacket packet;
+    private Supplier<WrappedPacket> wrapper;
+    private WrappedPacket packet;
+    @Getter
     private boolean refresh;
 
+    public PacketDto(WrappedPacket packet) {
+        this.packet = packet;
+    }
+
+    /**
+     * The wrapper is only created, and the packet fields it decodes only read,
+     * once a listener actually asks for it.
+     */
+    public PacketDto(Supplier<WrappedPacket> wrapper) {
+        this.wrapper = wrapper;
+    }
+
+    public WrappedPacket getPacket() {
+        if (this.packet == null) {
+            this.packet = this.wrapper.get();
+            this.wrapper = null;
+        }
+        return this.packet;
+    }
+
     public PacketDto refresh() {
         this.refresh = true;
         return this;
     }
 
     public <T extends WrappedPacket> T wrap(Class<T> type) {
-        return this.packet.wrap(type);
+        return this.getPacket().wrap(type);
     }
 
 }
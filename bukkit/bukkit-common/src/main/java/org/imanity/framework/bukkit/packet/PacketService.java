@@ -24,11 +24,11 @@
 
 package org.imanity.framework.bukkit.packet;
 
-import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Multimap;
 import lombok.Getter;
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
 import org.imanity.framework.*;
 import org.imanity.framework.bukkit.Imanity;
 import org.imanity.framework.bukkit.impl.server.ServerImplementation;
@@ -36,16 +36,18 @@ import org.imanity.framework.bukkit.packet.netty.INettyInjection;
 import org.imanity.framework.bukkit.packet.netty.NettyInjection1_8;
 import org.imanity.framework.bukkit.packet.type.PacketType;
 import org.imanity.framework.bukkit.packet.type.PacketTypeClasses;
-import org.imanity.framework.bukkit.packet.wrapper.PacketContainer;
 import org.imanity.framework.bukkit.packet.wrapper.SendableWrapper;
 import org.imanity.framework.bukkit.packet.wrapper.WrappedPacket;
 import org.imanity.framework.bukkit.packet.wrapper.annotation.AutowiredWrappedPacket;
-import org.imanity.framework.bukkit.reflection.MinecraftReflection;
 import org.imanity.framework.bukkit.util.TaskUtil;
 import org.imanity.framework.reflect.ReflectLookup;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service(name = "packet")
 public class PacketService {
@@ -62,11 +64,32 @@ public class PacketService {
         PacketService.INSTANCE.sendPacket(player, sendableWrapper);
     }
 
-    private final Multimap<Class<?>, PacketListener> registeredPacketListeners = HashMultimap.create();
+    public static PacketBatch newBatch() {
+        return PacketService.INSTANCE.batch();
+    }
+
+    // every packet id fits a non negative byte
+    private static final int PACKET_ID_SLOTS = Byte.MAX_VALUE + 1;
+    private static final PacketListener[] NO_LISTENERS = new PacketListener[0];
+
+    /*
+     * Listeners indexed by packet id, per direction. Registration swaps in a new
+     * copy under the lock so the netty threads only ever need a volatile read and
+     * an array index to find the listeners of a packet.
+     */
+    private final Object listenerLock = new Object();
+    private volatile PacketListener[][] readListeners = PacketService.emptyListeners();
+    private volatile PacketListener[][] writeListeners = PacketService.emptyListeners();
 
     @Getter
     private INettyInjection nettyInjection;
 
+    private final LongAdder batchedPackets = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+
+    private final PacketBatch tickBatch = new PacketBatch(this);
+    private BukkitTask tickBatchTask;
+
     @PostInitialize
     public void init() {
 
@@ -100,6 +123,8 @@ public class PacketService {
         ImanityCommon.BEAN_CONTEXT.injectBeans(nettyInjection);
         Imanity.getPlayers().forEach(this::inject);
 
+        this.tickBatchTask = TaskUtil.runRepeated(this.tickBatch::flush, 1L);
+
         try {
 
             this.loadWrappers();
@@ -153,16 +178,85 @@ public class PacketService {
 
     @PostDestroy
     public void stop() {
+        if (this.tickBatchTask != null) {
+            this.tickBatchTask.cancel();
+            this.tickBatch.flush();
+        }
         this.nettyInjection.unregisterChannels();
     }
 
+    /**
+     * Start a batch of packets that is written out with a single flush per
+     * player when it's flushed or closed.
+     */
+    public PacketBatch batch() {
+        return new PacketBatch(this);
+    }
+
+    /**
+     * The batch flushed at the end of every tick, for packets sent from the main
+     * thread that don't need to leave before the tick ends.
+     */
+    public PacketBatch tickBatch() {
+        if (!Bukkit.isPrimaryThread()) {
+            throw new IllegalStateException("The tick batch can only be used from the main thread!");
+        }
+        return this.tickBatch;
+    }
+
+    public void recordFlush(int packets) {
+        this.batchedPackets.add(packets);
+        this.flushes.increment();
+    }
+
+    /**
+     * The number of packets written through batches so far.
+     */
+    public long getBatchedPackets() {
+        return this.batchedPackets.sum();
+    }
+
+    /**
+     * The number of channel flushes batches caused so far, each one being a
+     * write syscall on the player's socket.
+     */
+    public long getFlushes() {
+        return this.flushes.sum();
+    }
+
     public void registerPacketListener(PacketListener packetListener) {
-        for (Class<?> type : packetListener.type()) {
-            if (type == null) {
-                throw new UnsupportedOperationException("There is one packet doesn't exists in current version!");
+        synchronized (this.listenerLock) {
+            PacketListener[][] readListeners = this.readListeners.clone();
+            PacketListener[][] writeListeners = this.writeListeners.clone();
+
+            for (Class<?> type : packetListener.type()) {
+                if (type == null) {
+                    throw new UnsupportedOperationException("There is one packet doesn't exists in current version!");
+                }
+
+                Byte clientId = PacketType.Client.PACKET_IDS.get(type);
+                Byte serverId = PacketType.Server.PACKET_IDS.get(type);
+                if (clientId == null && serverId == null) {
+                    throw new UnsupportedOperationException("The packet " + type.getName() + " doesn't have a packet id!");
+                }
+
+                if (clientId != null) {
+                    readListeners[clientId] = PacketService.append(readListeners[clientId], packetListener);
+                }
+                if (serverId != null) {
+                    writeListeners[serverId] = PacketService.append(writeListeners[serverId], packetListener);
+                }
             }
 
-            this.registeredPacketListeners.put(type, packetListener);
+            this.readListeners = readListeners;
+            this.writeListeners = writeListeners;
+        }
+    }
+
+    public void unregisterPacketListener(PacketListener packetListener) {
+        synchronized (this.listenerLock) {
+            this.readListeners = PacketService.removeAll(this.readListeners, packetListener);
+            this.writeListeners = PacketService.removeAll(this.writeListeners, packetListener);
         }
     }
 
@@ -175,18 +269,20 @@ public class PacketService {
     }
 
     public Object read(Player player, Object packet) {
-        Class<?> type = packet.getClass();
-
-        if (!this.registeredPacketListeners.containsKey(type)) {
+        Byte id = PacketType.Client.PACKET_IDS.get(packet.getClass());
+        if (id == null) {
             return packet;
         }
 
-        WrappedPacket wrappedPacket = PacketDirection.READ.getWrappedFromNMS(player, PacketType.Client.getIdByType(type), packet);
+        PacketListener[] listeners = this.readListeners[id];
+        if (listeners.length == 0) {
+            return packet;
+        }
 
-        PacketDto packetDto = new PacketDto(wrappedPacket);
+        PacketDto packetDto = new PacketDto(() -> PacketDirection.READ.getWrappedFromNMS(player, id, packet));
 
         boolean cancelled = false;
-        for (PacketListener packetListener : this.registeredPacketListeners.get(type)) {
+        for (PacketListener packetListener : listeners) {
             if (!packetListener.read(player, packetDto)) {
                 cancelled = true;
             }
@@ -196,33 +292,59 @@ public class PacketService {
     }
 
     public Object write(Player player, Object packet) {
-        Class<?> type = packet.getClass();
-
-        if (!this.registeredPacketListeners.containsKey(type)) {
+        Byte id = PacketType.Server.PACKET_IDS.get(packet.getClass());
+        if (id == null) {
             return packet;
         }
 
-        WrappedPacket wrappedPacket = PacketDirection.WRITE.getWrappedFromNMS(player, PacketType.Server.getIdByType(type), packet);
+        PacketListener[] listeners = this.writeListeners[id];
+        if (listeners.length == 0) {
+            return packet;
+        }
 
-        PacketDto packetDto = new PacketDto(wrappedPacket);
+        PacketDto packetDto = new PacketDto(() -> PacketDirection.WRITE.getWrappedFromNMS(player, id, packet));
 
         boolean cancelled = false;
-        for (PacketListener packetListener : this.registeredPacketListeners.get(type)) {
+        for (PacketListener packetListener : listeners) {
             if (!packetListener.write(player, packetDto)) {
                 cancelled = true;
             }
         }
 
-        return cancelled ? null : packetDto.isRefresh() ? ((SendableWrapper) wrappedPacket).asNMSPacket() : packet;
+        return cancelled ? null : packetDto.isRefresh() ? ((SendableWrapper) packetDto.getPacket()).asNMSPacket() : packet;
     }
 
     public void sendPacket(Player player, SendableWrapper packet) {
-        PacketContainer packetContainer = packet.asPacketContainer();
-        MinecraftReflection.sendPacket(player, packetContainer.getMainPacket());
+        this.batch().send(player, packet).flush();
+    }
+
+    private static PacketListener[][] emptyListeners() {
+        PacketListener[][] listeners = new PacketListener[PACKET_ID_SLOTS][];
+        Arrays.fill(listeners, NO_LISTENERS);
+        return listeners;
+    }
+
+    private static PacketListener[] append(PacketListener[] listeners, PacketListener packetListener) {
+        for (PacketListener listener : listeners) {
+            if (listener == packetListener) {
+                return listeners;
+            }
+        }
 
-        for (Object extra : packetContainer.getExtraPackets()) {
-            MinecraftReflection.sendPacket(player, extra);
+        PacketListener[] appended = Arrays.copyOf(listeners, listeners.length + 1);
+        appended[listeners.length] = packetListener;
+        return appended;
+    }
+
+    private static PacketListener[][] removeAll(PacketListener[][] listeners, PacketListener packetListener) {
+        PacketListener[][] removed = listeners.clone();
+        for (int i = 0; i < removed.length; i++) {
+            List<PacketListener> remaining = new ArrayList<>(Arrays.asList(removed[i]));
+            if (remaining.remove(packetListener)) {
+                removed[i] = remaining.isEmpty() ? NO_LISTENERS : remaining.toArray(NO_LISTENERS);
+            }
         }
+        return removed;
     }
 
 }
@@ -26,6 +26,8 @@ package org.imanity.framework.bukkit.packet.netty;
 
 import org.bukkit.entity.Player;
 
+import java.util.List;
+
 public interface INettyInjection {
 
     void inject(Player player);
@@ -38,4 +40,10 @@ public interface INettyInjection {
 
     byte[] readBytes(Object byteBuffer);
 
+    /**
+     * Write every packet down the player's channel and flush once, on the
+     * channel's event loop.
+     */
+    void sendPackets(Player player, List<Object> packets);
+
 }
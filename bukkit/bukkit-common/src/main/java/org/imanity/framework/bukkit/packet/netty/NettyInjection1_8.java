@@ -115,13 +115,53 @@ public class NettyInjection1_8 implements INettyInjection {
     public Channel getChannel(Player player) {
         Channel channel = this.channelLookup.get(player.getName());
 
-        if (channel == null) {
+        if (channel == null || !channel.isOpen()) {
             channel = MinecraftReflection.getChannel(player);
+            if (channel != null) {
+                this.channelLookup.put(player.getName(), channel);
+            }
         }
 
         return channel;
     }
 
+    @Override
+    public void sendPackets(Player player, List<Object> packets) {
+        Channel channel = this.getChannel(player);
+        if (channel == null || !channel.isOpen()) {
+            return;
+        }
+
+        if (channel.eventLoop().inEventLoop()) {
+            this.writeAndFlush(player, channel, packets);
+        } else {
+            channel.eventLoop().execute(() -> this.writeAndFlush(player, channel, packets));
+        }
+    }
+
+    private void writeAndFlush(Player player, Channel channel, List<Object> packets) {
+        for (Object packet : packets) {
+            if (this.requiresPlayerConnection(packet)) {
+                // written in order after the queued packets, the connection flushes it on the event loop
+                MinecraftReflection.sendPacket(player, packet);
+            } else {
+                channel.write(packet, channel.voidPromise());
+            }
+        }
+        channel.flush();
+
+        this.packetService.recordFlush(packets.size());
+    }
+
+    /**
+     * PlayerConnection.sendPacket filters chat by the player's chat visibility and
+     * tracks the compass target, so those packets keep going through it.
+     */
+    private boolean requiresPlayerConnection(Object packet) {
+        Class<?> type = packet.getClass();
+        return type == PacketTypeClasses.Server.CHAT || type == PacketTypeClasses.Server.SPAWN_POSITION;
+    }
+
     private List<?> networkManagers;
 
     @Override
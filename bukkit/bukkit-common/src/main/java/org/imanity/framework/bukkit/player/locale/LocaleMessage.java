@@ -27,7 +27,6 @@ package org.imanity.framework.bukkit.player.locale;
 import org.bukkit.entity.Player;
 import org.imanity.framework.bukkit.Imanity;
 import org.imanity.framework.bukkit.util.LocaleRV;
-import org.imanity.framework.util.StringUtil;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -64,13 +63,7 @@ public class LocaleMessage {
     }
 
     public void send(Player player) {
-        String result = Imanity.translate(player, this.localeName);
-
-        for (LocaleRV rv : this.replaceValues) {
-            result = StringUtil.replace(result, rv.getTarget(), rv.getReplacement(player));
-        }
-
-        player.sendMessage(result);
+        player.sendMessage(Imanity.translate(player, this.localeName, this.replaceValues.toArray(new LocaleRV[0])));
     }
 
 }
@@ -24,9 +24,9 @@
 
 package org.imanity.framework.bukkit.reflection.accessor;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.LoadingCache;
 import org.imanity.framework.bukkit.reflection.resolver.ResolverQuery;
+import org.imanity.framework.bukkit.reflection.wrapper.FieldWrapper;
+import org.imanity.framework.bukkit.reflection.wrapper.MethodWrapper;
 import org.imanity.framework.util.AccessUtil;
 import org.imanity.framework.util.Utility;
 
@@ -36,13 +36,16 @@ import java.lang.reflect.Type;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
 
 public class ClassAccessorCache {
 
-    private static final LoadingCache<Class<?>, ClassAccessorCache> CLASS_ACCESSORS = Caffeine.newBuilder()
-            .expireAfterAccess(5, TimeUnit.MINUTES)
-            .build(ClassAccessorCache::new);
+    // lives as long as the class itself, wrappers are too costly to rebuild after an expiry
+    private static final ClassValue<ClassAccessorCache> CLASS_ACCESSORS = new ClassValue<ClassAccessorCache>() {
+        @Override
+        protected ClassAccessorCache computeValue(Class<?> type) {
+            return new ClassAccessorCache(type);
+        }
+    };
 
     public static ClassAccessorCache get(Class<?> parentClass) {
         return CLASS_ACCESSORS.get(parentClass);
@@ -52,16 +55,47 @@ public class ClassAccessorCache {
     private final Map<ResolverQuery, Method> methodCache;
     private final Map<ResolverQuery, Field> fieldCache;
 
+    private final Map<Method, MethodWrapper<?>> methodWrappers;
+    private final Map<Field, FieldWrapper<?>> fieldWrappers;
+
     public ClassAccessorCache(Class<?> parentClass) {
         this.parentClass = parentClass;
 
         this.methodCache = new ConcurrentHashMap<>();
         this.fieldCache = new ConcurrentHashMap<>();
+
+        this.methodWrappers = new ConcurrentHashMap<>();
+        this.fieldWrappers = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * The wrapper of a resolved method, built once since building one compiles
+     * its method handle.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> MethodWrapper<T> methodWrapper(Method method) {
+        if (method == null) {
+            return new MethodWrapper<>(null);
+        }
+        return (MethodWrapper<T>) this.methodWrappers.computeIfAbsent(method, MethodWrapper::new);
+    }
+
+    /**
+     * The wrapper of a resolved field, built once since building one compiles
+     * its method handles.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> FieldWrapper<T> fieldWrapper(Field field) {
+        if (field == null) {
+            return new FieldWrapper<>(null);
+        }
+        return (FieldWrapper<T>) this.fieldWrappers.computeIfAbsent(field, FieldWrapper::new);
     }
 
     public Method resolveMethod(ResolverQuery query) throws ReflectiveOperationException {
-        if (methodCache.containsKey(query)) {
-            return methodCache.get(query);
+        Method cached = methodCache.get(query);
+        if (cached != null) {
+            return cached;
         }
 
         int currentIndex = 0;
@@ -94,8 +128,9 @@ public class ClassAccessorCache {
     }
 
     public Field resolveField(ResolverQuery query) throws ReflectiveOperationException {
-        if (fieldCache.containsKey(query)) {
-            return fieldCache.get(query);
+        Field cached = fieldCache.get(query);
+        if (cached != null) {
+            return cached;
         }
 
         int currentIndex = 0;
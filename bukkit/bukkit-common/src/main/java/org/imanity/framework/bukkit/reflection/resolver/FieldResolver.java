@@ -60,11 +60,11 @@ public class FieldResolver extends MemberResolver<Field> {
 
 	@Override
 	public FieldWrapper resolveIndexWrapper(int index) {
-		return new FieldWrapper<>(resolveIndexSilent(index));
+		return this.accessorCache.fieldWrapper(resolveIndexSilent(index));
 	}
 
 	public FieldWrapper resolveWrapper(String... names) {
-		return new FieldWrapper<>(resolveSilent(names));
+		return this.accessorCache.fieldWrapper(resolveSilent(names));
 	}
 
 	public Field resolveSilent(String... names) {
@@ -104,14 +104,14 @@ public class FieldResolver extends MemberResolver<Field> {
 
 	public <T> FieldWrapper<T> resolve(Class<T> type, int index) {
 		try {
-			return new FieldWrapper<>(this.resolve(new ResolverQuery(type, index)));
+			return this.accessorCache.fieldWrapper(this.resolve(new ResolverQuery(type, index)));
 		} catch (NoSuchFieldException e) {
 			throw new IllegalArgumentException(e);
 		}
 	}
 
 	public <T> FieldWrapper<T> resolveSilent(Class<T> type, int index) {
-		return new FieldWrapper<>(this.resolveSilent(new ResolverQuery(type, index)));
+		return this.accessorCache.fieldWrapper(this.resolveSilent(new ResolverQuery(type, index)));
 	}
 
 	public <T> List<FieldWrapper<T>> resolveList(Class<T> type) {
@@ -138,7 +138,7 @@ public class FieldResolver extends MemberResolver<Field> {
 
 	public <T> FieldWrapper<T> resolveWithGenericType(Class<T> fieldType, Class<?>... genericType) {
 		try {
-			return new FieldWrapper<>(this.resolve(new ResolverQuery(fieldType, -1, genericType)));
+			return this.accessorCache.fieldWrapper(this.resolve(new ResolverQuery(fieldType, -1, genericType)));
 		} catch (Throwable throwable) {
 			throw new RuntimeException(throwable);
 		}
@@ -162,7 +162,7 @@ public class FieldResolver extends MemberResolver<Field> {
 	}
 
 	public FieldWrapper resolveByFirstTypeWrapper(Class<?> type) throws ReflectiveOperationException {
-		return new FieldWrapper(this.resolveByFirstType(type));
+		return this.accessorCache.fieldWrapper(this.resolveByFirstType(type));
 	}
 
 	public FieldWrapper resolveByFirstTypeDynamic(Class<?> type) throws ReflectiveOperationException {
@@ -171,7 +171,7 @@ public class FieldResolver extends MemberResolver<Field> {
 				.build()));
 
 		if (field != null)
-			return new FieldWrapper<>(field);
+			return this.accessorCache.fieldWrapper(field);
 		throw new NoSuchFieldException("Could not resolve field of type '" + type.toString() + "' in class " + this.clazz);
 	}
 
@@ -206,7 +206,7 @@ public class FieldResolver extends MemberResolver<Field> {
 	}
 
 	public FieldWrapper resolveByLastTypeWrapper(Class<?> type) throws ReflectiveOperationException {
-		return new FieldWrapper(this.resolveByLastType(type));
+		return this.accessorCache.fieldWrapper(this.resolveByLastType(type));
 	}
 
 	public Field resolveByLastTypeSilent(Class<?> type) {
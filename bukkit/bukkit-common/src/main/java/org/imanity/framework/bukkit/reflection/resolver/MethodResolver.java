@@ -67,18 +67,18 @@ public class MethodResolver extends MemberResolver<Method> {
 	}
 
 	public MethodWrapper resolveSignatureWrapper(String... signatures) {
-		return new MethodWrapper(resolveSignatureSilent(signatures));
+		return this.accessorCache.methodWrapper(resolveSignatureSilent(signatures));
 	}
 
 	public MethodWrapper resolve(int index, Class<?>... parameters) throws ReflectiveOperationException {
 
-		return new MethodWrapper(this.resolve(new ResolverQuery(index, parameters)));
+		return this.accessorCache.methodWrapper(this.resolve(new ResolverQuery(index, parameters)));
 
 	}
 
 	public MethodWrapper resolve(Class<?> returnType, int index, Class<?>... parameters) throws ReflectiveOperationException {
 
-		return new MethodWrapper<>(this.resolve(new ResolverQuery(returnType, index, parameters)));
+		return this.accessorCache.methodWrapper(this.resolve(new ResolverQuery(returnType, index, parameters)));
 
 	}
 
@@ -98,15 +98,15 @@ public class MethodResolver extends MemberResolver<Method> {
 
 	@Override
 	public MethodWrapper resolveIndexWrapper(int index) {
-		return new MethodWrapper<>(resolveIndexSilent(index));
+		return this.accessorCache.methodWrapper(resolveIndexSilent(index));
 	}
 
 	public MethodWrapper resolveWrapper(String... names) {
-		return new MethodWrapper<>(resolveSilent(names));
+		return this.accessorCache.methodWrapper(resolveSilent(names));
 	}
 
 	public MethodWrapper resolveWrapper(ResolverQuery... queries) {
-		return new MethodWrapper<>(resolveSilent(queries));
+		return this.accessorCache.methodWrapper(resolveSilent(queries));
 	}
 
 	public Method resolveSilent(String... names) {
@@ -24,14 +24,27 @@
 
 package org.imanity.framework.bukkit.reflection.wrapper;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 
 public class FieldWrapper<R> extends WrapperAbstract {
 
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
 	private final Field field;
 
+	// (Object)Object and (Object, Object)void, static fields ignore the instance
+	private final MethodHandle getter;
+	private final MethodHandle setter;
+
 	public FieldWrapper(Field field) {
 		this.field = field;
+		this.getter = field != null ? createGetter(field) : null;
+		this.setter = field != null ? createSetter(field) : null;
 	}
 
 	@Override
@@ -45,33 +58,48 @@ public class FieldWrapper<R> extends WrapperAbstract {
 
 	public R get(Object object) {
 		try {
-			return (R) this.field.get(object);
-		} catch (Exception e) {
-			throw new RuntimeException(e);
+			return (R) this.read(object);
+		} catch (Throwable throwable) {
+			throw new RuntimeException(throwable);
 		}
 	}
 
 	public R getSilent(Object object) {
 		try {
-			return (R) this.field.get(object);
-		} catch (Exception e) {
+			return (R) this.read(object);
+		} catch (Throwable ignored) {
 		}
 		return null;
 	}
 
 	public void set(Object object, R value) {
 		try {
-			this.field.set(object, value);
-		} catch (Exception e) {
-			throw new RuntimeException(e);
+			this.write(object, value);
+		} catch (Throwable throwable) {
+			throw new RuntimeException(throwable);
 		}
 	}
 
 	public void setSilent(Object object, R value) {
 		try {
+			this.write(object, value);
+		} catch (Throwable ignored) {
+		}
+	}
+
+	private Object read(Object object) throws Throwable {
+		if (this.getter == null) {
+			return this.field.get(object);
+		}
+		return this.getter.invokeExact(object);
+	}
+
+	private void write(Object object, Object value) throws Throwable {
+		if (this.setter == null) {
 			this.field.set(object, value);
-		} catch (Exception e) {
+			return;
 		}
+		this.setter.invokeExact(object, value);
 	}
 
 	public Field getField() {
@@ -94,4 +122,37 @@ public class FieldWrapper<R> extends WrapperAbstract {
 	public int hashCode() {
 		return field != null ? field.hashCode() : 0;
 	}
+
+	private static MethodHandle createGetter(Field field) {
+		try {
+			MethodHandle handle = MethodHandles.lookup().unreflectGetter(accessible(field));
+			if (Modifier.isStatic(field.getModifiers())) {
+				handle = MethodHandles.dropArguments(handle, 0, Object.class);
+			}
+			return handle.asType(GETTER_TYPE);
+		} catch (ReflectiveOperationException | RuntimeException ignored) {
+			// stay on Field.get
+			return null;
+		}
+	}
+
+	private static MethodHandle createSetter(Field field) {
+		try {
+			MethodHandle handle = MethodHandles.lookup().unreflectSetter(accessible(field));
+			if (Modifier.isStatic(field.getModifiers())) {
+				handle = MethodHandles.dropArguments(handle, 0, Object.class);
+			}
+			return handle.asType(SETTER_TYPE);
+		} catch (ReflectiveOperationException | RuntimeException ignored) {
+			// final fields only allow writes through Field.set
+			return null;
+		}
+	}
+
+	private static Field accessible(Field field) {
+		if (!field.isAccessible()) {
+			field.setAccessible(true);
+		}
+		return field;
+	}
 }
@@ -24,17 +24,27 @@
 
 package org.imanity.framework.bukkit.reflection.wrapper;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.Arrays;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class MethodWrapper<R> extends WrapperAbstract {
 
+	private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
 	private final Method method;
 
+	// (Object, Object[])Object, static methods ignore the instance
+	private final MethodHandle invoker;
+
 	public MethodWrapper(Method method) {
 		this.method = method;
+		this.invoker = method != null ? createInvoker(method) : null;
 	}
 
 	@Override
@@ -48,20 +58,27 @@ public class MethodWrapper<R> extends WrapperAbstract {
 
 	public R invoke(Object object, Object... args) {
 		try {
-			return (R) this.method.invoke(object, args);
-		} catch (Exception e) {
-			throw new RuntimeException(e);
+			return (R) this.call(object, args);
+		} catch (Throwable throwable) {
+			throw new RuntimeException(throwable);
 		}
 	}
 
 	public R invokeSilent(Object object, Object... args) {
 		try {
-			return (R) this.method.invoke(object, args);
-		} catch (Exception e) {
+			return (R) this.call(object, args);
+		} catch (Throwable ignored) {
 		}
 		return null;
 	}
 
+	private Object call(Object object, Object[] args) throws Throwable {
+		if (this.invoker == null) {
+			return this.method.invoke(object, args);
+		}
+		return this.invoker.invokeExact(object, args);
+	}
+
 	public Method getMethod() {
 		return method;
 	}
@@ -82,6 +99,27 @@ public class MethodWrapper<R> extends WrapperAbstract {
 		return method != null ? method.hashCode() : 0;
 	}
 
+	private static MethodHandle createInvoker(Method method) {
+		try {
+			if (!method.isAccessible()) {
+				method.setAccessible(true);
+			}
+
+			MethodHandle handle = MethodHandles.lookup().unreflect(method).asFixedArity();
+			if (Modifier.isStatic(method.getModifiers())) {
+				handle = MethodHandles.dropArguments(handle, 0, Object.class);
+			}
+
+			int parameterCount = method.getParameterCount();
+			return handle.asType(MethodType.genericMethodType(parameterCount + 1))
+					.asSpreader(Object[].class, parameterCount)
+					.asType(INVOKER_TYPE);
+		} catch (ReflectiveOperationException | RuntimeException ignored) {
+			// stay on Method.invoke
+			return null;
+		}
+	}
+
 	/**
 	 * Generates a method's signature.
 	 *
@@ -28,29 +28,51 @@ import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 import org.bukkit.scoreboard.DisplaySlot;
 import org.imanity.framework.ImanityCommon;
+import org.imanity.framework.bukkit.packet.PacketBatch;
 import org.imanity.framework.bukkit.packet.PacketService;
 import org.imanity.framework.bukkit.packet.wrapper.server.WrappedPacketOutScoreboardDisplayObjective;
 import org.imanity.framework.bukkit.packet.wrapper.server.WrappedPacketOutScoreboardObjective;
 import org.imanity.framework.bukkit.packet.wrapper.server.WrappedPacketOutScoreboardScore;
 import org.imanity.framework.bukkit.packet.wrapper.server.WrappedPacketOutScoreboardTeam;
 import org.imanity.framework.metadata.MetadataKey;
-import org.imanity.framework.bukkit.util.BukkitUtil;
+import org.imanity.framework.util.CC;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class ImanityBoard {
 
     public static final MetadataKey<ImanityBoard> METADATA_TAG = MetadataKey.create(ImanityCommon.METADATA_PREFIX + "Scoreboard", ImanityBoard.class);
 
+    public static final int MAX_LINES = 15;
+
+    private static final String[] ENTRIES = new String[MAX_LINES + 1];
+
+    static {
+        String codes = "0123456789abcdef";
+        for (int line = 1; line <= MAX_LINES; line++) {
+            ENTRIES[line] = ChatColor.COLOR_CHAR + "" + codes.charAt(line - 1) + ChatColor.WHITE;
+        }
+    }
+
     private final Player player;
 
     private String title;
     private final String[] teams;
 
+    /*
+     * Scheduling state owned by ImanityBoardService, the snapshot is the last one
+     * handed to the main thread so unchanged boards are never queued twice.
+     */
+    final AtomicBoolean computing = new AtomicBoolean();
+    volatile ImanityBoardSnapshot lastSnapshot;
+    volatile long nextRefresh;
+    volatile boolean dirty;
+
     public ImanityBoard(Player player) {
 
         this.player = player;
-        this.teams = new String[16];
+        this.teams = new String[MAX_LINES + 1];
 
         WrappedPacketOutScoreboardObjective packetA = new WrappedPacketOutScoreboardObjective(
                 player.getName(),
@@ -69,7 +91,19 @@ public class ImanityBoard {
 
     }
 
+    public Player getPlayer() {
+        return this.player;
+    }
+
     public void setTitle(String title) {
+        this.lastSnapshot = null;
+
+        try (PacketBatch batch = PacketService.newBatch()) {
+            this.setTitle(title, batch);
+        }
+    }
+
+    private void setTitle(String title, PacketBatch batch) {
 
         if (this.title != null && this.title.equals(title)) {
             return;
@@ -77,7 +111,7 @@ public class ImanityBoard {
 
         this.title = title;
 
-        PacketService.send(player, new WrappedPacketOutScoreboardObjective(
+        batch.send(player, new WrappedPacketOutScoreboardObjective(
                 player.getName(),
                 title,
                 WrappedPacketOutScoreboardObjective.HealthDisplayType.INTEGER,
@@ -87,70 +121,71 @@ public class ImanityBoard {
     }
 
     public void setLines(List<String> lines) {
+        this.lastSnapshot = null;
 
         int lineCount = 1;
 
-        for (int i = lines.size() - 1; i >= 0; --i) {
-            this.setLine(lineCount, BukkitUtil.color(lines.get(i)));
+        try (PacketBatch batch = PacketService.newBatch()) {
+            for (int i = lines.size() - 1; i >= 0 && lineCount <= MAX_LINES; --i) {
+                String value = CC.translate(lines.get(i));
+                String[] split = ImanityBoard.split(value);
+                this.setLine(lineCount, value, split[0], split[1], batch);
 
-            lineCount++;
-        }
-
-        for (int i = lines.size(); i < 15; i++) {
-            if (teams[lineCount] != null) {
-                this.clear(lineCount);
+                lineCount++;
             }
 
-            lineCount++;
+            this.clearFrom(lineCount, batch);
         }
 
     }
 
-    private void setLine(int line, String value) {
-        if (line <= 0 || line >= 16) {
-            return;
-        }
-
-        if (teams[line] != null && teams[line].equals(value)) {
+    /**
+     * Bring the board to the given snapshot, only lines that differ from what
+     * the player currently sees are sent and all of them leave in the batch.
+     */
+    public void apply(ImanityBoardSnapshot snapshot, PacketBatch batch) {
+        if (snapshot.isEmpty()) {
+            this.clearFrom(1, batch);
             return;
         }
 
-        WrappedPacketOutScoreboardTeam packet = getOrRegisterTeam(line);
-        String prefix;
-        String suffix;
+        this.setTitle(snapshot.getTitle(), batch);
 
-        if (value.length() <= 16) {
-            prefix = value;
-            suffix = "";
-        } else {
-            prefix = value.substring(0, 16);
-            String lastColor = ChatColor.getLastColors(prefix);
-
-            if (lastColor.isEmpty() || lastColor.equals(" "))
-                lastColor = ChatColor.COLOR_CHAR + "f";
+        String[] lines = snapshot.getLines();
+        for (int i = 0; i < lines.length; i++) {
+            this.setLine(i + 1, lines[i], snapshot.getPrefixes()[i], snapshot.getSuffixes()[i], batch);
+        }
 
-            if (prefix.endsWith(ChatColor.COLOR_CHAR + "")) {
-                prefix = prefix.substring(0, 15);
-                suffix = lastColor + value.substring(15);
+        this.clearFrom(lines.length + 1, batch);
+    }
 
-            } else
-                suffix = lastColor + value.substring(16);
+    private void setLine(int line, String value, String prefix, String suffix, PacketBatch batch) {
+        if (line <= 0 || line > MAX_LINES) {
+            return;
+        }
 
-            if (suffix.length() > 16) {
-                suffix = suffix.substring(0, 16);
-            }
+        if (teams[line] != null && teams[line].equals(value)) {
+            return;
         }
 
+        WrappedPacketOutScoreboardTeam packet = getOrRegisterTeam(line, batch);
+
         packet.setPrefix(prefix);
         packet.setSuffix(suffix);
 
         teams[line] = value;
 
-        PacketService.send(player, packet);
+        batch.send(player, packet);
     }
 
     public void clear(int line) {
-        if (line > 0 && line < 16) {
+        try (PacketBatch batch = PacketService.newBatch()) {
+            this.clear(line, batch);
+        }
+    }
+
+    private void clear(int line, PacketBatch batch) {
+        if (line > 0 && line <= MAX_LINES) {
             if (teams[line] != null) {
 
                 WrappedPacketOutScoreboardScore packetA = new WrappedPacketOutScoreboardScore(
@@ -159,24 +194,32 @@ public class ImanityBoard {
                         line,
                         WrappedPacketOutScoreboardScore.ScoreboardAction.REMOVE
                 );
-                WrappedPacketOutScoreboardTeam packetB = getOrRegisterTeam(line);
+                WrappedPacketOutScoreboardTeam packetB = getOrRegisterTeam(line, batch);
                 packetB.setAction(1);
 
                 teams[line] = null;
 
-                PacketService.send(player, packetA);
-                PacketService.send(player, packetB);
+                batch.send(player, packetA);
+                batch.send(player, packetB);
             }
         }
     }
 
+    private void clearFrom(int line, PacketBatch batch) {
+        for (; line <= MAX_LINES; line++) {
+            this.clear(line, batch);
+        }
+    }
+
     public void remove() {
-        for (int line = 1; line < 15; line++) {
-            this.clear(line);
+        this.lastSnapshot = null;
+
+        try (PacketBatch batch = PacketService.newBatch()) {
+            this.clearFrom(1, batch);
         }
     }
 
-    private WrappedPacketOutScoreboardTeam getOrRegisterTeam(int line) {
+    private WrappedPacketOutScoreboardTeam getOrRegisterTeam(int line, PacketBatch batch) {
 
         WrappedPacketOutScoreboardTeam packetB = WrappedPacketOutScoreboardTeam.builder()
                 .name("-sb" + line)
@@ -201,23 +244,49 @@ public class ImanityBoard {
             packetB.setAction(0);
             packetB.getNameSet().add(getEntry(line));
 
-            PacketService.send(player, packetA);
+            batch.send(player, packetA);
 
             return packetB;
         }
     }
 
-    private String getEntry(Integer line) {
-        if (line > 0 && line < 16)
-            if (line <= 10)
-                return ChatColor.COLOR_CHAR + "" + (line - 1) + ChatColor.WHITE;
-            else {
-                final String values = "a,b,c,d,e,f";
-                final String[] next = values.split(",");
+    private String getEntry(int line) {
+        if (line > 0 && line <= MAX_LINES)
+            return ENTRIES[line];
+        return "";
+    }
+
+    /**
+     * Split a line into the team prefix and suffix, carrying the last color of
+     * the prefix over to the suffix.
+     */
+    static String[] split(String value) {
+        String prefix;
+        String suffix;
 
-                return ChatColor.COLOR_CHAR + next[line - 11] + ChatColor.WHITE;
+        if (value.length() <= 16) {
+            prefix = value;
+            suffix = "";
+        } else {
+            prefix = value.substring(0, 16);
+            String lastColor = ChatColor.getLastColors(prefix);
+
+            if (lastColor.isEmpty() || lastColor.equals(" "))
+                lastColor = ChatColor.COLOR_CHAR + "f";
+
+            if (prefix.endsWith(ChatColor.COLOR_CHAR + "")) {
+                prefix = prefix.substring(0, 15);
+                suffix = lastColor + value.substring(15);
+
+            } else
+                suffix = lastColor + value.substring(16);
+
+            if (suffix.length() > 16) {
+                suffix = suffix.substring(0, 16);
             }
-        return "";
+        }
+
+        return new String[] { prefix, suffix };
     }
 
 }
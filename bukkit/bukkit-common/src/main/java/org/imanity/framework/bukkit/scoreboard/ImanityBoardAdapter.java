@@ -34,11 +34,46 @@ public interface ImanityBoardAdapter {
 
     }
 
-
+    /**
+     *
+     * Called on the main thread, or on a scoreboard worker thread if {@link #isAsync()} returns true,
+     * in which case it should only read state that is safe to read off the main thread
+     *
+     * @return the title of the board, null or empty to let a lower priority adapter provide the board
+     */
     String getTitle(Player player);
 
+    /**
+     *
+     * Called on the main thread, or on a scoreboard worker thread if {@link #isAsync()} returns true,
+     * in which case it should only read state that is safe to read off the main thread
+     *
+     * @return the lines of the board, null or empty to let a lower priority adapter provide the board
+     */
     List<String> getLines(Player player);
 
+    /**
+     *
+     * Boards are only computed on the worker threads when every registered adapter allows it,
+     * otherwise they are computed on the main thread
+     *
+     * @return true if {@link #getTitle(Player)} and {@link #getLines(Player)} can be called off the main thread
+     */
+    default boolean isAsync() {
+        return false;
+    }
+
+    /**
+     *
+     * How often the board of a player is recomputed while this adapter provides it
+     *
+     * @return the number of update ticks between two refreshes, 1 to refresh on every update,
+     * or -1 to only refresh when {@link ImanityBoardService#markDirty(Player)} is called
+     */
+    default int refreshInterval() {
+        return 1;
+    }
+
     /**
      *
      * This will only work when this adapter is highest priority
@@ -24,6 +24,10 @@
 
 package org.imanity.framework.bukkit.scoreboard;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.RequiredArgsConstructor;
 import org.bukkit.entity.Player;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.scheduler.BukkitTask;
@@ -31,29 +35,48 @@ import org.imanity.framework.*;
 import org.imanity.framework.bukkit.Imanity;
 import org.imanity.framework.bukkit.listener.events.Events;
 import org.imanity.framework.bukkit.metadata.Metadata;
-import org.imanity.framework.bukkit.util.BukkitUtil;
+import org.imanity.framework.bukkit.packet.PacketBatch;
+import org.imanity.framework.bukkit.packet.PacketService;
 import org.imanity.framework.bukkit.util.TaskRunnable;
 import org.imanity.framework.bukkit.util.TaskUtil;
 import org.imanity.framework.util.CC;
 import org.imanity.framework.util.Stacktrace;
-import org.imanity.framework.util.entry.Entry;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.stream.Collectors;
 
-@Service(name = "scoreboard")
+@Service(name = "scoreboard", dependencies = "packet")
 public class ImanityBoardService implements TaskRunnable {
 
+    private static final int WORKER_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+
     private List<ImanityBoardAdapter> adapters;
     private Queue<Runnable> runnableQueue;
     private AtomicBoolean activated;
 
+    /*
+     * Boards are computed into immutable snapshots, on the workers if every
+     * adapter is async, the main thread only drains the snapshots that changed
+     * and sends the line diffs.
+     */
+    private ExecutorService executorService;
+    private volatile boolean async;
+    private Queue<BoardUpdate> pendingUpdates;
+    private Cache<String, String> translatedLines;
+    private volatile long ticks;
+
     @PreInitialize
     public void preInit() {
-        this.adapters = new ArrayList<>();
+        this.adapters = new CopyOnWriteArrayList<>();
         this.runnableQueue = new ConcurrentLinkedQueue<>();
+        this.pendingUpdates = new ConcurrentLinkedQueue<>();
+        this.translatedLines = Caffeine.newBuilder()
+                .maximumSize(4096)
+                .build();
         this.activated = new AtomicBoolean(true);
         ComponentRegistry.registerComponentHolder(new ComponentHolder() {
             @Override
@@ -70,13 +93,26 @@ public class ImanityBoardService implements TaskRunnable {
 
     @PostInitialize
     public void postInit() {
+        this.executorService = Executors.newFixedThreadPool(WORKER_THREADS, new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("Imanity - Scoreboard %d")
+                .setUncaughtExceptionHandler((thread, throwable) -> Stacktrace.print(throwable))
+                .build());
         TaskUtil.runRepeated(this, this.getUpdateTick());
         Events.subscribe(PlayerQuitEvent.class).listen((subscription, event) -> remove(event.getPlayer()));
     }
 
+    @PreDestroy
+    public void stop() {
+        if (this.executorService != null) {
+            this.executorService.shutdownNow();
+        }
+    }
+
     public void addAdapter(ImanityBoardAdapter adapter) {
         this.adapters.add(adapter);
         this.adapters.sort(Collections.reverseOrder(Comparator.comparingInt(ImanityBoardAdapter::priority)));
+        this.async = this.adapters.stream().allMatch(ImanityBoardAdapter::isAsync);
         this.activate();
     }
 
@@ -103,6 +139,7 @@ public class ImanityBoardService implements TaskRunnable {
     public void run(BukkitTask task) {
         try {
             this.tick();
+            this.applyUpdates();
 
             this.runQueue();
             if (this.adapters.isEmpty()) {
@@ -121,7 +158,39 @@ public class ImanityBoardService implements TaskRunnable {
         }
     }
 
+    /**
+     * Recompute the board of the player on the next update even if its
+     * adapter's refresh interval hasn't passed yet.
+     */
+    public void markDirty(Player player) {
+        ImanityBoard board = this.get(player);
+        if (board != null) {
+            board.dirty = true;
+        }
+    }
+
+    private void applyUpdates() {
+        if (this.pendingUpdates.isEmpty()) {
+            return;
+        }
+
+        try (PacketBatch batch = PacketService.newBatch()) {
+            BoardUpdate update;
+            while ((update = this.pendingUpdates.poll()) != null) {
+                ImanityBoard board = update.board;
+
+                // the player might have left or got a new board while it was computed
+                if (!board.getPlayer().isOnline() || this.get(board.getPlayer()) != board) {
+                    continue;
+                }
+                board.apply(update.snapshot, batch);
+            }
+        }
+    }
+
     private void tick() {
+        long tick = this.ticks++;
+
         for (Player player : Imanity.getPlayers()) {
 
             if (Imanity.SHUTTING_DOWN) {
@@ -133,41 +202,63 @@ public class ImanityBoardService implements TaskRunnable {
                 continue;
             }
 
-            Entry<String, List<String>> entry = this.findAdapter(player);
-            if (entry == null) {
-                board.remove();
+            if (!board.dirty && tick < board.nextRefresh) {
                 continue;
             }
-            String title = CC.translate(entry.getKey());
-
-            board.setTitle(title);
 
-            List<String> newLines = entry.getValue();
+            // one computation in flight per board at most
+            if (!board.computing.compareAndSet(false, true)) {
+                continue;
+            }
+            board.dirty = false;
 
-            if (newLines == null || newLines.isEmpty()) {
-                board.remove();
+            if (this.async) {
+                this.executorService.execute(() -> this.compute(player, board, tick));
             } else {
-
-                board.setLines(newLines);
-
+                this.compute(player, board, tick);
             }
         }
     }
 
-    private Entry<String, List<String>> findAdapter(Player player) {
-        Entry<String, List<String>> entry = null;
+    private void compute(Player player, ImanityBoard board, long tick) {
+        try {
+            ImanityBoardSnapshot snapshot = ImanityBoardSnapshot.EMPTY;
+            int refreshInterval = 1;
 
-        for (ImanityBoardAdapter adapter : this.adapters) {
-            String title = adapter.getTitle(player);
-            List<String> list = adapter.getLines(player);
-            if (title != null && !title.isEmpty() &&
-                    list != null && !list.isEmpty()) {
-                entry = new Entry<>(title, list);
-                break;
+            for (ImanityBoardAdapter adapter : this.adapters) {
+                String title = adapter.getTitle(player);
+                List<String> lines = adapter.getLines(player);
+                if (title != null && !title.isEmpty() &&
+                        lines != null && !lines.isEmpty()) {
+                    snapshot = ImanityBoardSnapshot.of(this.translate(title), this.translate(lines));
+                    refreshInterval = adapter.refreshInterval();
+                    break;
+                }
+            }
+
+            board.nextRefresh = refreshInterval < 0 ? Long.MAX_VALUE : tick + Math.max(1, refreshInterval);
+
+            if (!snapshot.equals(board.lastSnapshot)) {
+                board.lastSnapshot = snapshot;
+                this.pendingUpdates.add(new BoardUpdate(board, snapshot));
             }
+        } catch (Throwable throwable) {
+            Stacktrace.print(throwable);
+        } finally {
+            board.computing.set(false);
         }
+    }
 
-        return entry;
+    private String translate(String raw) {
+        return this.translatedLines.get(raw, CC::translate);
+    }
+
+    private List<String> translate(List<String> raw) {
+        List<String> lines = new ArrayList<>(raw.size());
+        for (String line : raw) {
+            lines.add(line == null ? "" : this.translate(line));
+        }
+        return lines;
     }
 
     public void remove(Player player) {
@@ -193,5 +284,12 @@ public class ImanityBoardService implements TaskRunnable {
         });
     }
 
+    @RequiredArgsConstructor
+    private static final class BoardUpdate {
+
+        private final ImanityBoard board;
+        private final ImanityBoardSnapshot snapshot;
+
+    }
 
 }
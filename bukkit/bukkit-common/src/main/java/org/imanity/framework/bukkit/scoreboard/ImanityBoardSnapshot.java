@@ -0,0 +1,82 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Imanity
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package org.imanity.framework.bukkit.scoreboard;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * The translated title and lines of a board at one point in time, with every
+ * line already split into its team prefix and suffix so applying it on the
+ * main thread is only a comparison per line.
+ *
+ * Lines are stored in score order, index 0 is the bottom line.
+ */
+@Getter
+@EqualsAndHashCode(of = {"title", "lines"})
+public final class ImanityBoardSnapshot {
+
+    public static final ImanityBoardSnapshot EMPTY = new ImanityBoardSnapshot(null, new String[0]);
+
+    private final String title;
+    private final String[] lines;
+    private final String[] prefixes;
+    private final String[] suffixes;
+
+    private ImanityBoardSnapshot(String title, String[] lines) {
+        this.title = title;
+        this.lines = lines;
+        this.prefixes = new String[lines.length];
+        this.suffixes = new String[lines.length];
+
+        for (int i = 0; i < lines.length; i++) {
+            String[] split = ImanityBoard.split(lines[i]);
+            this.prefixes[i] = split[0];
+            this.suffixes[i] = split[1];
+        }
+    }
+
+    public boolean isEmpty() {
+        return this.lines.length == 0;
+    }
+
+    /**
+     * @param title the translated title
+     * @param lines the translated lines from top to bottom, only the bottom 15 are shown
+     */
+    public static ImanityBoardSnapshot of(String title, List<String> lines) {
+        int size = Math.min(lines.size(), ImanityBoard.MAX_LINES);
+        String[] scoreOrder = new String[size];
+
+        for (int i = 0; i < size; i++) {
+            scoreOrder[i] = lines.get(lines.size() - 1 - i);
+        }
+        return new ImanityBoardSnapshot(title, scoreOrder);
+    }
+
+}
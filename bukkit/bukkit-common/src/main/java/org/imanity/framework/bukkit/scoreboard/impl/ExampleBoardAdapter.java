@@ -44,4 +44,9 @@ public class ExampleBoardAdapter implements ImanityBoardAdapter {
         }
         return lines;
     }
+
+    @Override
+    public boolean isAsync() {
+        return true;
+    }
 }
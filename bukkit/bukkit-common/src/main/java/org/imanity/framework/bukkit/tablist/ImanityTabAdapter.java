@@ -27,10 +27,20 @@ package org.imanity.framework.bukkit.tablist;
 import org.bukkit.entity.Player;
 import org.imanity.framework.bukkit.tablist.util.BufferedTabObject;
 
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Set;
 
 public interface ImanityTabAdapter {
 
+    /**
+     * Return it from {@link #getSlots(Player)} to keep every slot as it is without them being compared.
+     */
+    Set<BufferedTabObject> UNCHANGED = Collections.unmodifiableSet(new HashSet<>());
+
+    /**
+     * @return the slots to show, slots missing from it are cleared, or {@link #UNCHANGED}
+     */
     Set<BufferedTabObject> getSlots(Player player);
 
     String getFooter(Player player);
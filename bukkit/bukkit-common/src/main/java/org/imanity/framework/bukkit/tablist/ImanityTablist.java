@@ -24,6 +24,7 @@
 
 package org.imanity.framework.bukkit.tablist;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
@@ -39,19 +40,30 @@ import java.util.*;
 @Getter
 public class ImanityTablist {
 
+    private static final int SLOTS_PER_COLUMN = 20;
+
     private final Player player;
-    private final Set<TabEntry> currentEntries = new HashSet<>();
+    private final boolean legacy;
+
+    /*
+     * Entries indexed by column and slot, every entry remembers the text,
+     * latency and skin the player was last sent.
+     */
+    private final TabEntry[] entries = new TabEntry[TabColumn.values().length * SLOTS_PER_COLUMN];
+    @Getter(AccessLevel.NONE)
+    private final boolean[] updated = new boolean[this.entries.length];
 
     private String header;
     private String footer;
 
     public ImanityTablist(Player player) {
         this.player = player;
+        this.legacy = MinecraftReflection.getProtocol(player) == PlayerVersion.v1_7;
         this.setup();
     }
 
     private void setup() {
-        final int possibleSlots = MinecraftReflection.getProtocol(player) == PlayerVersion.v1_7 ? 60 : 80;
+        final int possibleSlots = this.legacy ? 60 : 80;
 
         for (int i = 1; i <= possibleSlots; i++) {
             final TabColumn tabColumn = TabColumn.getFromSlot(player, i);
@@ -66,7 +78,7 @@ public class ImanityTablist {
                     tabColumn.getNumb(player, i),
                     i
             );
-            if (MinecraftReflection.getProtocol(player) == PlayerVersion.v1_7) {
+            if (this.legacy) {
 
                 Imanity.IMPLEMENTATION.sendTeam(
                         player,
@@ -77,66 +89,112 @@ public class ImanityTablist {
                         0
                 );
             }
-            currentEntries.add(tabEntry);
+
+            int index = ImanityTablist.index(tabColumn, tabEntry.getSlot());
+            if (index != -1) {
+                this.entries[index] = tabEntry;
+            }
         }
     }
 
     public void update() {
         ImanityTabAdapter adapter = ImanityTabHandler.getInstance().getAdapter();
 
-        Set<TabEntry> previous = new HashSet<>(currentEntries);
-
         Set<BufferedTabObject> processedObjects = adapter.getSlots(player);
-        if (processedObjects == null) {
-            processedObjects = new HashSet<>();
+        if (processedObjects != ImanityTabAdapter.UNCHANGED) {
+            this.updateSlots(processedObjects != null ? processedObjects : Collections.emptySet());
         }
 
+        String header = adapter.getHeader(player);
+        String footer = adapter.getFooter(player);
+        String headerNow = header != null ? BukkitUtil.color(header) : this.header;
+        String footerNow = footer != null ? BukkitUtil.color(footer) : this.footer;
+
+        if (!Objects.equals(headerNow, this.header) || !Objects.equals(footerNow, this.footer)) {
+            ImanityTabHandler.getInstance().getImplementation().updateHeaderAndFooter(
+                    this,
+                    headerNow != null ? headerNow : "",
+                    footerNow != null ? footerNow : ""
+            );
+            this.header = headerNow;
+            this.footer = footerNow;
+        }
+    }
+
+    private void updateSlots(Set<BufferedTabObject> processedObjects) {
+        List<TabEntry> names = new ArrayList<>();
+        List<TabEntry> latencies = new ArrayList<>();
+        List<TabEntry> skins = new ArrayList<>();
+
         for (BufferedTabObject scoreObject : processedObjects) {
-            TabEntry tabEntry = getEntry(scoreObject.getColumn(), scoreObject.getSlot());
-            if (tabEntry != null) {
-                previous.remove(tabEntry);
-                if (scoreObject.getPing() == null) {
-                    ImanityTabHandler.getInstance().getImplementation().updateFakeLatency(this, tabEntry, 0);
-                } else {
-                    ImanityTabHandler.getInstance().getImplementation().updateFakeLatency(this, tabEntry, scoreObject.getPing());
-                }
-
-                ImanityTabHandler.getInstance().getImplementation().updateFakeName(this, tabEntry, scoreObject.getText());
-                if (MinecraftReflection.getProtocol(player) != PlayerVersion.v1_7) {
-                    if (!tabEntry.getTexture().toString().equals(scoreObject.getSkin().toString())) {
-                        ImanityTabHandler.getInstance().getImplementation().updateFakeSkin(this, tabEntry, scoreObject.getSkin());
-                    }
-                }
+            int index = ImanityTablist.index(scoreObject.getColumn(), scoreObject.getSlot());
+            if (index == -1 || this.entries[index] == null) {
+                continue;
             }
+
+            this.updated[index] = true;
+            this.change(
+                    this.entries[index],
+                    scoreObject.getText(),
+                    scoreObject.getPing() != null ? scoreObject.getPing() : 0,
+                    scoreObject.getSkin(),
+                    names, latencies, skins
+            );
         }
 
-        for (TabEntry tabEntry : previous) {
-            ImanityTabHandler.getInstance().getImplementation().updateFakeName(this, tabEntry, "");
-            ImanityTabHandler.getInstance().getImplementation().updateFakeLatency(this, tabEntry, 0);
-            if (MinecraftReflection.getProtocol(player) != PlayerVersion.v1_7) {
-                ImanityTabHandler.getInstance().getImplementation().updateFakeSkin(this, tabEntry, Skin.GRAY);
+        for (int index = 0; index < this.entries.length; index++) {
+            if (this.updated[index]) {
+                this.updated[index] = false;
+            } else if (this.entries[index] != null) {
+                this.change(this.entries[index], "", 0, Skin.GRAY, names, latencies, skins);
             }
         }
 
-        previous.clear();
+        if (!names.isEmpty() || !latencies.isEmpty() || !skins.isEmpty()) {
+            ImanityTabHandler.getInstance().getImplementation().sendChanges(this, names, latencies, skins);
+        }
+    }
 
-        String headerNow = BukkitUtil.color(adapter.getHeader(player));
-        String footerNow = BukkitUtil.color(adapter.getFooter(player));
+    private void change(TabEntry tabEntry, String text, int latency, Skin skin, List<TabEntry> names, List<TabEntry> latencies, List<TabEntry> skins) {
+        if (text != null && !tabEntry.getText().equals(text)) {
+            tabEntry.setText(text);
+            names.add(tabEntry);
+        }
 
-        if (!headerNow.equals(this.header) || !footerNow.equals(this.footer)) {
-            ImanityTabHandler.getInstance().getImplementation().updateHeaderAndFooter(this, headerNow, footerNow);
-            this.header = headerNow;
-            this.footer = footerNow;
+        if (tabEntry.getLatency() != latency) {
+            tabEntry.setLatency(latency);
+            latencies.add(tabEntry);
         }
+
+        if (!this.legacy && skin != null && !tabEntry.getTexture().equals(skin)) {
+            tabEntry.setTexture(skin);
+            skins.add(tabEntry);
+        }
+    }
+
+    public TabEntry getEntry(TabColumn column, Integer slot) {
+        int index = ImanityTablist.index(column, slot);
+        return index != -1 ? this.entries[index] : null;
     }
 
-    public TabEntry getEntry(TabColumn column, Integer slot){
-        for (TabEntry entry : currentEntries){
-            if (entry.getColumn().name().equalsIgnoreCase(column.name()) && entry.getSlot() == slot){
-                return entry;
+    /**
+     * @return a copy of the entries of every slot
+     */
+    public List<TabEntry> getCurrentEntries() {
+        List<TabEntry> entries = new ArrayList<>(this.entries.length);
+        for (TabEntry entry : this.entries) {
+            if (entry != null) {
+                entries.add(entry);
             }
         }
-        return null;
+        return entries;
+    }
+
+    private static int index(TabColumn column, int slot) {
+        if (column == null || slot < 1 || slot > SLOTS_PER_COLUMN) {
+            return -1;
+        }
+        return column.ordinal() * SLOTS_PER_COLUMN + slot - 1;
     }
 
     public static String[] splitStrings(String text, int rawSlot) {
@@ -28,6 +28,8 @@ import org.bukkit.entity.Player;
 import org.imanity.framework.bukkit.tablist.ImanityTablist;
 import org.imanity.framework.bukkit.util.Skin;
 
+import java.util.List;
+
 public interface IImanityTabImpl {
 
     default void removeSelf(Player player) {}
@@ -50,6 +52,14 @@ public interface IImanityTabImpl {
             ImanityTablist imanityTablist, TabEntry tabEntry, Skin skin
     );
 
+    /**
+     * Send the changes of one update, the entries already hold the new values.
+     * Changes of the same kind are merged into one packet where the protocol allows it.
+     */
+    void sendChanges(
+            ImanityTablist imanityTablist, List<TabEntry> names, List<TabEntry> latencies, List<TabEntry> skins
+    );
+
     void updateHeaderAndFooter(
             ImanityTablist imanityTablist, String header, String footer
     );
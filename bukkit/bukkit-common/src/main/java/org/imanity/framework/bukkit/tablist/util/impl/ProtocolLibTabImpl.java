@@ -33,6 +33,9 @@ import com.comphenix.protocol.wrappers.*;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 import org.imanity.framework.bukkit.Imanity;
+import org.imanity.framework.bukkit.packet.PacketBatch;
+import org.imanity.framework.bukkit.packet.PacketService;
+import org.imanity.framework.bukkit.packet.wrapper.server.WrappedPacketOutScoreboardTeam;
 import org.imanity.framework.bukkit.tablist.ImanityTablist;
 import org.imanity.framework.bukkit.tablist.util.*;
 import org.imanity.framework.bukkit.util.Skin;
@@ -41,7 +44,9 @@ import org.imanity.framework.bukkit.reflection.MinecraftReflection;
 import org.imanity.framework.bukkit.reflection.version.PlayerVersion;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 public class ProtocolLibTabImpl implements IImanityTabImpl {
@@ -171,6 +176,73 @@ public class ProtocolLibTabImpl implements IImanityTabImpl {
         tabEntry.setTexture(skin);
     }
 
+    @Override
+    public void sendChanges(ImanityTablist tablist, List<TabEntry> names, List<TabEntry> latencies, List<TabEntry> skins) {
+        final Player player = tablist.getPlayer();
+        final PlayerVersion playerVersion = MinecraftReflection.getProtocol(player);
+
+        try (PacketBatch batch = PacketService.newBatch()) {
+            if (!names.isEmpty()) {
+                if (playerVersion == PlayerVersion.v1_7) {
+                    for (TabEntry tabEntry : names) {
+                        String[] newStrings = ImanityTablist.splitStrings(tabEntry.getText(), tabEntry.getRawSlot());
+
+                        batch.send(player, WrappedPacketOutScoreboardTeam.builder()
+                                .name(LegacyClientUtil.name(tabEntry.getRawSlot() - 1))
+                                .prefix(BukkitUtil.color(newStrings[0]))
+                                .suffix(newStrings.length > 1 ? BukkitUtil.color(newStrings[1]) : "")
+                                .nameSets(Collections.singleton(LegacyClientUtil.entry(tabEntry.getRawSlot() - 1)))
+                                .action(2)
+                                .build());
+                    }
+                } else {
+                    List<PlayerInfoData> playerInfoData = new ArrayList<>(names.size());
+                    for (TabEntry tabEntry : names) {
+                        playerInfoData.add(new PlayerInfoData(
+                                new WrappedGameProfile(tabEntry.getUuid(), tabEntry.getId()),
+                                tabEntry.getLatency(),
+                                EnumWrappers.NativeGameMode.SURVIVAL,
+                                WrappedChatComponent.fromText(ChatColor.translateAlternateColorCodes('&', tabEntry.getText()))
+                        ));
+                    }
+                    batch.send(player, createPlayerInfo(EnumWrappers.PlayerInfoAction.UPDATE_DISPLAY_NAME, playerInfoData).getHandle());
+                }
+            }
+
+            if (!latencies.isEmpty()) {
+                List<PlayerInfoData> playerInfoData = new ArrayList<>(latencies.size());
+                for (TabEntry tabEntry : latencies) {
+                    playerInfoData.add(new PlayerInfoData(
+                            new WrappedGameProfile(tabEntry.getUuid(), tabEntry.getId()),
+                            tabEntry.getLatency(),
+                            EnumWrappers.NativeGameMode.SURVIVAL,
+                            WrappedChatComponent.fromText(ChatColor.translateAlternateColorCodes('&', tabEntry.getText()))
+                    ));
+                }
+                batch.send(player, createPlayerInfo(EnumWrappers.PlayerInfoAction.UPDATE_LATENCY, playerInfoData).getHandle());
+            }
+
+            if (!skins.isEmpty() && playerVersion != PlayerVersion.v1_7) {
+                List<PlayerInfoData> playerInfoData = new ArrayList<>(skins.size());
+                for (TabEntry tabEntry : skins) {
+                    Skin skin = tabEntry.getTexture();
+                    WrappedGameProfile profile = new WrappedGameProfile(tabEntry.getUuid(), tabEntry.getId());
+                    profile.getProperties().put("texture", new WrappedSignedProperty("textures", skin.skinValue, skin.skinSignature));
+
+                    playerInfoData.add(new PlayerInfoData(
+                            profile,
+                            tabEntry.getLatency(),
+                            EnumWrappers.NativeGameMode.SURVIVAL,
+                            WrappedChatComponent.fromText(ChatColor.translateAlternateColorCodes('&', tabEntry.getText()))
+                    ));
+                }
+
+                batch.send(player, createPlayerInfo(EnumWrappers.PlayerInfoAction.REMOVE_PLAYER, playerInfoData).getHandle());
+                batch.send(player, createPlayerInfo(EnumWrappers.PlayerInfoAction.ADD_PLAYER, playerInfoData).getHandle());
+            }
+        }
+    }
+
     @Override
     public void updateHeaderAndFooter(ImanityTablist tablist, String header, String footer) {
         PacketContainer headerAndFooter = new PacketContainer(PacketType.Play.Server.PLAYER_LIST_HEADER_FOOTER);
@@ -187,6 +259,13 @@ public class ProtocolLibTabImpl implements IImanityTabImpl {
         }
     }
 
+    private static PacketContainer createPlayerInfo(EnumWrappers.PlayerInfoAction action, List<PlayerInfoData> playerInfoData) {
+        PacketContainer packet = ProtocolLibrary.getProtocolManager().createPacket(PacketType.Play.Server.PLAYER_INFO);
+        packet.getPlayerInfoAction().write(0, action);
+        packet.getPlayerInfoDataLists().write(0, playerInfoData);
+        return packet;
+    }
+
     private static void sendPacket(Player player, PacketContainer packetContainer){
         try {
             ProtocolLibrary.getProtocolManager().sendServerPacket(player, packetContainer);
@@ -27,8 +27,10 @@ package org.imanity.framework.bukkit.tablist.util.impl.v1_8;
 import org.bukkit.GameMode;
 import org.bukkit.entity.Player;
 import org.imanity.framework.bukkit.Imanity;
+import org.imanity.framework.bukkit.packet.PacketBatch;
 import org.imanity.framework.bukkit.packet.PacketService;
 import org.imanity.framework.bukkit.packet.wrapper.server.WrappedPacketOutPlayerListHeaderAndFooter;
+import org.imanity.framework.bukkit.packet.wrapper.server.WrappedPacketOutScoreboardTeam;
 import org.imanity.framework.bukkit.packet.wrapper.server.playerinfo.PlayerInfoAction;
 import org.imanity.framework.bukkit.packet.wrapper.server.playerinfo.WrappedPacketOutPlayerInfo;
 import org.imanity.framework.bukkit.packet.wrapper.server.playerinfo.WrappedPlayerInfoData;
@@ -40,7 +42,9 @@ import org.imanity.framework.bukkit.tablist.util.*;
 import org.imanity.framework.bukkit.reflection.MinecraftReflection;
 import org.imanity.framework.bukkit.reflection.version.PlayerVersion;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 public class NMS1_8TabImpl implements IImanityTabImpl {
@@ -164,6 +168,49 @@ public class NMS1_8TabImpl implements IImanityTabImpl {
         tabEntry.setTexture(skin);
     }
 
+    @Override
+    public void sendChanges(ImanityTablist imanityTablist, List<TabEntry> names, List<TabEntry> latencies, List<TabEntry> skins) {
+        final Player player = imanityTablist.getPlayer();
+        final PlayerVersion playerVersion = MinecraftReflection.getProtocol(player);
+
+        try (PacketBatch batch = PacketService.newBatch()) {
+            if (!names.isEmpty()) {
+                if (playerVersion == PlayerVersion.v1_7) {
+                    for (TabEntry tabEntry : names) {
+                        String[] newStrings = ImanityTablist.splitStrings(tabEntry.getText(), tabEntry.getRawSlot());
+
+                        batch.send(player, WrappedPacketOutScoreboardTeam.builder()
+                                .name(LegacyClientUtil.name(tabEntry.getRawSlot() - 1))
+                                .prefix(BukkitUtil.color(newStrings[0]))
+                                .suffix(newStrings.length > 1 ? BukkitUtil.color(newStrings[1]) : "")
+                                .nameSets(Collections.singleton(LegacyClientUtil.entry(tabEntry.getRawSlot() - 1)))
+                                .action(2)
+                                .build());
+                    }
+                } else {
+                    batch.send(player, new WrappedPacketOutPlayerInfo(PlayerInfoAction.UPDATE_DISPLAY_NAME, this.getPlayerInfoData(playerVersion, names)));
+                }
+            }
+
+            if (!latencies.isEmpty()) {
+                batch.send(player, new WrappedPacketOutPlayerInfo(PlayerInfoAction.UPDATE_LATENCY, this.getPlayerInfoData(playerVersion, latencies)));
+            }
+
+            if (!skins.isEmpty() && playerVersion != PlayerVersion.v1_7) {
+                List<WrappedPlayerInfoData> playerInfoData = this.getPlayerInfoData(playerVersion, skins);
+                for (int i = 0; i < skins.size(); i++) {
+                    Skin skin = skins.get(i).getTexture();
+                    GameProfileWrapper gameProfile = playerInfoData.get(i).getGameProfile();
+
+                    gameProfile.getProperties().put("textures", new SignedPropertyWrapper("textures", skin.skinValue, skin.skinSignature));
+                }
+
+                batch.send(player, new WrappedPacketOutPlayerInfo(PlayerInfoAction.REMOVE_PLAYER, playerInfoData));
+                batch.send(player, new WrappedPacketOutPlayerInfo(PlayerInfoAction.ADD_PLAYER, playerInfoData));
+            }
+        }
+    }
+
     @Override
     public void updateHeaderAndFooter(ImanityTablist imanityTablist, String header, String footer) {
 
@@ -181,6 +228,19 @@ public class NMS1_8TabImpl implements IImanityTabImpl {
 
     }
 
+    private List<WrappedPlayerInfoData> getPlayerInfoData(PlayerVersion playerVersion, List<TabEntry> tabEntries) {
+        List<WrappedPlayerInfoData> playerInfoData = new ArrayList<>(tabEntries.size());
+        for (TabEntry tabEntry : tabEntries) {
+            playerInfoData.add(new WrappedPlayerInfoData(
+                    tabEntry.getLatency(),
+                    GameMode.SURVIVAL,
+                    this.getGameProfile(playerVersion, tabEntry),
+                    ChatComponentWrapper.fromText(BukkitUtil.color(tabEntry.getText()))
+            ));
+        }
+        return playerInfoData;
+    }
+
     private GameProfileWrapper getGameProfile(PlayerVersion playerVersion, TabEntry tabEntry) {
         return new GameProfileWrapper(tabEntry.getUuid(), playerVersion != PlayerVersion.v1_7  ? tabEntry.getId() : LegacyClientUtil.entry(tabEntry.getRawSlot() - 1) + "");
     }
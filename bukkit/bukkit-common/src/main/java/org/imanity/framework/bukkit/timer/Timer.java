@@ -52,6 +52,16 @@ public interface Timer {
 
     }
 
+    /**
+     * Whether {@link #tick()} has to be called on every run of the timer handler,
+     * timers that don't are only looked at again when they are about to elapse
+     *
+     * @return true to be ticked every run
+     */
+    default boolean isTicking() {
+        return true;
+    }
+
     default Collection<? extends Player> getReceivers() {
         return null;
     }
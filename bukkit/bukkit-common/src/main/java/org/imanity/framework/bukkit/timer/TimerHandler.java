@@ -24,7 +24,6 @@
 
 package org.imanity.framework.bukkit.timer;
 
-import com.google.common.collect.Sets;
 import org.bukkit.scheduler.BukkitTask;
 import org.imanity.framework.PostDestroy;
 import org.imanity.framework.PostInitialize;
@@ -33,21 +32,52 @@ import org.imanity.framework.bukkit.Imanity;
 import org.imanity.framework.bukkit.timer.event.TimerStartEvent;
 import org.imanity.framework.bukkit.util.TaskUtil;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 @Service(name = "timer")
 public class TimerHandler implements Runnable {
 
-    private Set<Timer> timers;
+    // the wheel turns one bucket per 5 ticks worth of time
+    private static final long RESOLUTION = 250L;
+    private static final int WHEEL_SIZE = 512;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    /*
+     * Every Timer type a timer class is an instance of, so a timer is indexed
+     * under each type getTimer could be asked for
+     */
+    private static final ClassValue<Class<?>[]> TIMER_TYPES = new ClassValue<Class<?>[]>() {
+        @Override
+        protected Class<?>[] computeValue(Class<?> type) {
+            Set<Class<?>> types = new LinkedHashSet<>();
+            TimerHandler.collectTimerTypes(type, types);
+            return types.toArray(new Class<?>[0]);
+        }
+    };
+
+    private final Map<Timer, TimerEntry> entries = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Set<Timer>> timersByType = new ConcurrentHashMap<>();
+
+    /*
+     * The wheel is only touched by the main thread, timers added from other
+     * threads wait in pending until the next run
+     */
+    private final Queue<TimerEntry> pending = new ConcurrentLinkedQueue<>();
+    @SuppressWarnings("unchecked") // a generic array can't be created, every bucket is filled with an ArrayDeque<TimerEntry> in init
+    private final ArrayDeque<TimerEntry>[] wheel = new ArrayDeque[WHEEL_SIZE];
+    private final List<TimerEntry> due = new ArrayList<>();
+    private long lastBucket;
 
     private BukkitTask task;
 
     @PostInitialize
     public void init() {
-        this.timers = Sets.newConcurrentHashSet();
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            this.wheel[i] = new ArrayDeque<>();
+        }
+        this.lastBucket = System.currentTimeMillis() / RESOLUTION;
         this.task = TaskUtil.runRepeated(this, 5L);
     }
 
@@ -64,21 +94,58 @@ public class TimerHandler implements Runnable {
             return;
         }
 
-        synchronized (this) {
-            this.timers.add(timer);
+        TimerEntry entry = new TimerEntry(timer);
+        if (this.entries.putIfAbsent(timer, entry) == null) {
+            for (Class<?> type : TIMER_TYPES.get(timer.getClass())) {
+                this.timersByType.computeIfAbsent(type, ignored -> ConcurrentHashMap.newKeySet()).add(timer);
+            }
+            this.pending.add(entry);
         }
         timer.start();
     }
 
     public void clear(Timer timer) {
-        synchronized (this) {
-            this.timers.remove(timer);
+        TimerEntry entry = this.entries.remove(timer);
+        if (entry == null) {
+            return;
         }
+
+        // the wheel drops removed entries when it gets to them
+        entry.removed = true;
+        for (Class<?> type : TIMER_TYPES.get(timer.getClass())) {
+            this.timersByType.computeIfPresent(type, (ignored, timers) -> {
+                timers.remove(timer);
+                return timers.isEmpty() ? null : timers;
+            });
+        }
+    }
+
+    /**
+     * Look at a running timer again on the next run, a timer that doesn't tick is
+     * parked until its deadline so it has to be rescheduled when its duration or
+     * whether it ticks changes
+     *
+     * @param timer the timer
+     */
+    public void reschedule(Timer timer) {
+        this.entries.computeIfPresent(timer, (ignored, entry) -> {
+            // the parked entry can't be taken out of its bucket, the wheel drops it when it gets to it
+            entry.removed = true;
+
+            TimerEntry rescheduled = new TimerEntry(timer);
+            this.pending.add(rescheduled);
+            return rescheduled;
+        });
     }
 
     public void clear(Class<? extends Timer> timerClass) {
-        synchronized (this) {
-            this.timers.removeIf(timerClass::isInstance);
+        Set<Timer> timers = this.timersByType.get(timerClass);
+        if (timers == null) {
+            return;
+        }
+
+        for (Timer timer : new ArrayList<>(timers)) {
+            this.clear(timer);
         }
     }
 
@@ -87,35 +154,116 @@ public class TimerHandler implements Runnable {
     }
 
     public <T extends Timer> T getTimer(Class<T> timerClass) {
-        synchronized (this) {
-            return (T) this.timers
-                    .stream()
-                    .filter(timerClass::isInstance)
-                    .findFirst()
-                    .orElse(null);
+        Set<Timer> timers = this.timersByType.get(timerClass);
+        if (timers == null) {
+            return null;
         }
+
+        Iterator<Timer> iterator = timers.iterator();
+        return iterator.hasNext() ? timerClass.cast(iterator.next()) : null;
     }
 
     @Override
     public void run() {
+        this.run(System.currentTimeMillis());
+    }
+
+    /**
+     * Turn the wheel up to the given time and process every timer that is due
+     *
+     * @param now the current time in milliseconds
+     */
+    public void run(long now) {
+        final long currentBucket = now / RESOLUTION;
 
-        synchronized (this) {
-            Iterator<Timer> iterator = this.timers.iterator();
+        TimerEntry entry;
+        while ((entry = this.pending.poll()) != null) {
+            if (!entry.removed) {
+                this.schedule(entry, currentBucket + 1);
+            }
+        }
 
+        // catch up on every bucket the clock passed since the last run, but never go round twice
+        final long fromBucket = Math.max(this.lastBucket + 1, currentBucket - WHEEL_MASK);
+        for (long bucket = fromBucket; bucket <= currentBucket; bucket++) {
+            Iterator<TimerEntry> iterator = this.wheel[(int) (bucket & WHEEL_MASK)].iterator();
             while (iterator.hasNext()) {
+                entry = iterator.next();
+                if (entry.removed) {
+                    iterator.remove();
+                } else if (entry.deadline <= currentBucket) {
+                    iterator.remove();
+                    this.due.add(entry);
+                }
+            }
+        }
+        this.lastBucket = currentBucket;
 
-                Timer timer = iterator.next();
+        try {
+            for (TimerEntry dueEntry : this.due) {
+                this.process(dueEntry, now, currentBucket);
+            }
+        } finally {
+            this.due.clear();
+        }
+    }
 
-                if (!timer.isPaused()) {
+    private void process(TimerEntry entry, long now, long currentBucket) {
+        if (entry.removed) {
+            return;
+        }
 
-                    timer.tick();
-                    if (timer.isTimerElapsed() && timer.finish()) {
-                        timer.clear(false);
-                        iterator.remove();
-                    }
+        Timer timer = entry.timer;
+        if (!timer.isPaused()) {
 
-                }
+            if (timer.isTicking()) {
+                timer.tick();
             }
+            if (timer.isTimerElapsed() && timer.finish()) {
+                timer.clear(false);
+                this.clear(timer);
+                return;
+            }
+
         }
+
+        if (entry.removed) {
+            return;
+        }
+
+        if (timer.isPaused() || timer.isTicking()) {
+            this.schedule(entry, currentBucket + 1);
+        } else {
+            long remaining = timer.timeRemaining();
+            this.schedule(entry, remaining < 0 ? currentBucket + 1 : (now + remaining) / RESOLUTION + 1);
+        }
+    }
+
+    private void schedule(TimerEntry entry, long bucket) {
+        entry.deadline = bucket;
+        this.wheel[(int) (bucket & WHEEL_MASK)].add(entry);
+    }
+
+    private static void collectTimerTypes(Class<?> type, Set<Class<?>> types) {
+        if (type == null || !Timer.class.isAssignableFrom(type) || !types.add(type)) {
+            return;
+        }
+
+        TimerHandler.collectTimerTypes(type.getSuperclass(), types);
+        for (Class<?> interfaceType : type.getInterfaces()) {
+            TimerHandler.collectTimerTypes(interfaceType, types);
+        }
+    }
+
+    private static class TimerEntry {
+
+        private final Timer timer;
+        private long deadline;
+        private volatile boolean removed;
+
+        private TimerEntry(Timer timer) {
+            this.timer = timer;
+        }
+
     }
 }
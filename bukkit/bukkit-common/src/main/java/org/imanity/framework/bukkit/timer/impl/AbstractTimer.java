@@ -40,6 +40,18 @@ import java.util.Collection;
 @Getter
 public abstract class AbstractTimer implements Timer {
 
+    // whether a subclass overrides tick, so it has to be ticked even without announcing
+    private static final ClassValue<Boolean> TICK_OVERRIDDEN = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("tick").getDeclaringClass() != AbstractTimer.class;
+            } catch (NoSuchMethodException ex) {
+                return false;
+            }
+        }
+    };
+
     private boolean paused;
     private long beginTime;
     private long duration;
@@ -78,6 +90,7 @@ public abstract class AbstractTimer implements Timer {
             && countdownData == null) {
             countdownData = new CountdownData(this.secondsRemaining() + 1);
         }
+        this.reschedule();
     }
 
     public boolean isTimerElapsed() {
@@ -111,6 +124,7 @@ public abstract class AbstractTimer implements Timer {
         millis = event.getExtended();
         this.duration += millis;
         this.elapsedTime = this.beginTime + this.duration;
+        this.reschedule();
     }
 
     @Override
@@ -125,6 +139,14 @@ public abstract class AbstractTimer implements Timer {
         duration = this.duration + event.getExtended();
         this.duration = duration;
         this.elapsedTime = this.beginTime + this.duration;
+        this.reschedule();
+    }
+
+    private void reschedule() {
+        // the handler parks a timer that doesn't tick until the deadline it had
+        if (Imanity.TIMER_HANDLER != null) {
+            Imanity.TIMER_HANDLER.reschedule(this);
+        }
     }
 
     public String announceMessage(Player player, int seconds) {
@@ -149,6 +171,11 @@ public abstract class AbstractTimer implements Timer {
         }
     }
 
+    @Override
+    public boolean isTicking() {
+        return this.countdownData != null || TICK_OVERRIDDEN.get(this.getClass());
+    }
+
     @Override
     public void tick() {
 
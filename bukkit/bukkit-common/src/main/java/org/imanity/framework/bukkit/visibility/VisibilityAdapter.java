@@ -28,6 +28,11 @@ import org.bukkit.entity.Player;
 
 public interface VisibilityAdapter {
 
+    /**
+     * The decision is cached per pair of players until one of them is marked dirty with
+     * {@link VisibilityService#markDirty(Player)} or updated explicitly with
+     * {@link VisibilityService#update(Player)}, updateAll reuses cached decisions.
+     */
     VisibilityOption check(Player player, Player target);
 
 }
@@ -31,6 +31,7 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerChatTabCompleteEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.imanity.framework.bukkit.events.player.PlayerPostJoinEvent;
 import org.imanity.framework.Component;
 import org.imanity.framework.Autowired;
@@ -48,6 +49,11 @@ public class VisibilityListener implements Listener {
         this.visibilityService.update(event.getPlayer());
     }
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        this.visibilityService.remove(event.getPlayer());
+    }
+
     @EventHandler(priority = EventPriority.LOWEST)
     public void onTabComplete(PlayerChatTabCompleteEvent event) {
         final String token = event.getLastToken();
@@ -25,20 +25,40 @@
 package org.imanity.framework.bukkit.visibility;
 
 import org.bukkit.entity.Player;
+import org.imanity.framework.PostInitialize;
 import org.imanity.framework.PreInitialize;
 import org.imanity.framework.bukkit.Imanity;
 import org.imanity.framework.ComponentHolder;
 import org.imanity.framework.ComponentRegistry;
 import org.imanity.framework.Service;
+import org.imanity.framework.bukkit.util.TaskUtil;
 
-import java.util.LinkedList;
-import java.util.List;
+import java.util.*;
 
 @Service(name = "visibility")
 public class VisibilityService {
 
     private List<VisibilityAdapter> visibilityAdapters;
 
+    /*
+     * Players get a dense index while online so the players marked dirty and the
+     * adapters' decisions fit BitSets. decided[viewer] marks the targets whose
+     * decision is cached in visible[viewer], a player marked dirty drops its row
+     * and column.
+     *
+     * What a viewer currently sees is always read back from Bukkit, other plugins
+     * may show or hide players too and hidden players survive a relog, so Bukkit
+     * is only called when a decision differs from its real state.
+     *
+     * Only touched from the main thread.
+     */
+    private final Map<UUID, Integer> indices = new HashMap<>();
+    private final BitSet used = new BitSet();
+    private final BitSet dirty = new BitSet();
+    private Player[] players = new Player[16];
+    private BitSet[] decided = new BitSet[16];
+    private BitSet[] visible = new BitSet[16];
+
     @PreInitialize
     public void preInit() {
         this.visibilityAdapters = new LinkedList<>();
@@ -60,8 +80,18 @@ public class VisibilityService {
         });
     }
 
+    @PostInitialize
+    public void postInit() {
+        TaskUtil.runRepeated(this::updateDirty, 1L);
+    }
+
     public void register(VisibilityAdapter visibilityAdapter) {
         this.visibilityAdapters.add(visibilityAdapter);
+
+        // the new adapter may change any decision
+        for (int index = this.used.nextSetBit(0); index >= 0; index = this.used.nextSetBit(index + 1)) {
+            this.decided[index].clear();
+        }
     }
 
     public boolean isUsed() {
@@ -72,57 +102,187 @@ public class VisibilityService {
         return viewer.canSee(target);
     }
 
+    /**
+     * Re-check what the player sees and who sees the player on the next tick,
+     * adapters should call this whenever a player's state they depend on changes.
+     */
+    public void markDirty(Player player) {
+        int index = this.index(player);
+        this.invalidate(index);
+        this.dirty.set(index);
+    }
+
     public void updateAll() {
 
-        for (Player player : Imanity.getPlayers()) {
-            this.updateFromThirdSide(player);
+        List<? extends Player> players = Imanity.getPlayers();
+        for (Player player : players) {
+            this.index(player);
         }
 
+        for (Player viewer : players) {
+            for (Player target : players) {
+                if (viewer != target) {
+                    this.apply(viewer, target, this.decide(viewer, target));
+                }
+            }
+        }
+        this.dirty.clear();
+
     }
 
     public void update(Player player) {
 
         if (this.isUsed()) {
 
-            this.updateFromFirstSide(player);
-            this.updateFromThirdSide(player);
+            this.invalidate(this.index(player));
+            List<? extends Player> players = Imanity.getPlayers();
+            this.updateFromFirstSide(player, players);
+            this.updateFromThirdSide(player, players);
 
         }
 
     }
 
+    /**
+     * Recompute only the rows and columns of the players marked dirty.
+     */
+    public void updateDirty() {
+        if (this.dirty.isEmpty()) {
+            return;
+        }
+
+        BitSet dirty = (BitSet) this.dirty.clone();
+        this.dirty.clear();
+
+        List<? extends Player> players = Imanity.getPlayers();
+        for (int index = dirty.nextSetBit(0); index >= 0; index = dirty.nextSetBit(index + 1)) {
+            Player player = this.players[index];
+            if (player != null) {
+                this.updateFromFirstSide(player, players);
+                this.updateFromThirdSide(player, players);
+            }
+        }
+    }
+
     public void updateFromFirstSide(Player player) {
-        for (Player target : Imanity.getPlayers()) {
+        this.decided[this.index(player)].clear();
+        this.updateFromFirstSide(player, Imanity.getPlayers());
+    }
+
+    public void updateFromThirdSide(Player player) {
+        int index = this.index(player);
+        for (int viewer = this.used.nextSetBit(0); viewer >= 0; viewer = this.used.nextSetBit(viewer + 1)) {
+            this.decided[viewer].clear(index);
+        }
+        this.updateFromThirdSide(player, Imanity.getPlayers());
+    }
+
+    private void updateFromFirstSide(Player player, List<? extends Player> players) {
+        for (Player target : players) {
 
             if (target == player) {
                 continue;
             }
 
-            if (this.canSee(player, target)) {
-                player.showPlayer(target);
-            } else {
-                player.hidePlayer(target);
-            }
+            this.apply(player, target, this.decide(player, target));
 
         }
     }
 
-    public void updateFromThirdSide(Player player) {
-        for (Player target : Imanity.getPlayers()) {
+    private void updateFromThirdSide(Player player, List<? extends Player> players) {
+        for (Player viewer : players) {
 
-            if (target == player) {
+            if (viewer == player) {
                 continue;
             }
 
-            if (this.canSee(target, player)) {
-                target.showPlayer(player);
-            } else {
-                target.hidePlayer(player);
-            }
+            this.apply(viewer, player, this.decide(viewer, player));
+
+        }
+    }
+
+    /**
+     * Forget the player, has to be called once the player left.
+     */
+    public void remove(Player player) {
+        Integer index = this.indices.remove(player.getUniqueId());
+        if (index == null) {
+            return;
+        }
+
+        this.invalidate(index);
+        this.used.clear(index);
+        this.dirty.clear(index);
+        this.players[index] = null;
+    }
+
+    /*
+     * The cached decision of the adapters, evaluated if the pair has none
+     */
+    private boolean decide(Player viewer, Player target) {
+        int viewerIndex = this.index(viewer), targetIndex = this.index(target);
+        if (this.decided[viewerIndex].get(targetIndex)) {
+            return this.visible[viewerIndex].get(targetIndex);
+        }
+
+        boolean canSee = this.canSee(viewer, target);
+        this.decided[viewerIndex].set(targetIndex);
+        this.visible[viewerIndex].set(targetIndex, canSee);
+        return canSee;
+    }
 
+    /*
+     * Drop the cached decisions of the player's row and column
+     */
+    private void invalidate(int index) {
+        this.decided[index].clear();
+        for (int viewer = this.used.nextSetBit(0); viewer >= 0; viewer = this.used.nextSetBit(viewer + 1)) {
+            this.decided[viewer].clear(index);
         }
     }
 
+    private void apply(Player viewer, Player target, boolean canSee) {
+        if (viewer.canSee(target) == canSee) {
+            return;
+        }
+
+        if (canSee) {
+            viewer.showPlayer(target);
+        } else {
+            viewer.hidePlayer(target);
+        }
+    }
+
+    private int index(Player player) {
+        Integer existing = this.indices.get(player.getUniqueId());
+        if (existing != null) {
+            if (this.players[existing] != player) {
+                // a rejoined player is a new Player instance, the adapters decide again
+                this.players[existing] = player;
+                this.invalidate(existing);
+            }
+            return existing;
+        }
+
+        int index = this.used.nextClearBit(0);
+        if (index >= this.players.length) {
+            int length = Math.max(this.players.length * 2, index + 1);
+            this.players = Arrays.copyOf(this.players, length);
+            this.decided = Arrays.copyOf(this.decided, length);
+            this.visible = Arrays.copyOf(this.visible, length);
+        }
+        if (this.decided[index] == null) {
+            this.decided[index] = new BitSet();
+            this.visible[index] = new BitSet();
+        }
+
+        this.indices.put(player.getUniqueId(), index);
+        this.used.set(index);
+        this.players[index] = player;
+        // the index may have belonged to a player who left
+        this.invalidate(index);
+        return index;
+    }
 
     public boolean canSee(Player receiver, Player target) {
         for (VisibilityAdapter visibilityAdapter : this.visibilityAdapters) {
@@ -24,26 +24,30 @@
 
 package org.imanity.framework.bukkit.visual;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Table;
+import it.unimi.dsi.fastutil.longs.*;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.craftbukkit.v1_8_R3.entity.CraftPlayer;
+import org.bukkit.craftbukkit.v1_8_R3.util.LongHash;
 import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.material.MaterialData;
 import org.bukkit.util.Vector;
 import org.imanity.framework.bukkit.Imanity;
+import org.imanity.framework.bukkit.listener.events.Events;
 import org.imanity.framework.bukkit.player.movement.MovementListener;
 import org.imanity.framework.bukkit.util.BlockPosition;
-import org.imanity.framework.bukkit.util.CoordXZ;
 import org.imanity.framework.bukkit.util.CoordinatePair;
 import org.imanity.framework.bukkit.util.TaskUtil;
 import org.imanity.framework.bukkit.visual.event.PreHandleVisualClaimEvent;
@@ -58,33 +62,40 @@ import sun.rmi.runtime.Log;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 
 public class VisualBlockHandler implements Runnable {
 
     private static final Logger LOGGER = LogManager.getLogger(VisualBlockHandler.class);
 
-    private final Table<UUID, VisualPosition, VisualBlock> table = HashBasedTable.create();
-    private final LoadingCache<CoordinatePair, Optional<VisualBlockClaim>> claimCache;
-    private final Table<CoordinatePair, CoordXZ, VisualBlockClaim> claimPositionTable;
+    /*
+     * The visual blocks each player was sent, by packed position. Every player
+     * has their own lock so the async task never blocks on other players.
+     */
+    private final Map<UUID, PlayerVisuals> visuals = new ConcurrentHashMap<>();
     private final Queue<VisualTask> visualTasks = new ConcurrentLinkedQueue<>();
 
+    /*
+     * Snapshots taken on the main thread, the async task answers whether a
+     * block is solid from them instead of reading the world
+     */
+    private final Cache<CoordinatePair, ChunkSnapshot> chunkSnapshots = Caffeine.newBuilder()
+            .expireAfterWrite(1, TimeUnit.SECONDS)
+            .maximumSize(2048)
+            .build();
+
+    /*
+     * Claims by world name, then by chunk. Writers copy the chunk map and the
+     * chunks they change and swap them in, so lookups need no lock.
+     */
+    private final Object claimLock = new Object();
+    private final Map<String, Long2ObjectMap<ClaimChunk>> claimChunks = new ConcurrentHashMap<>();
+
     private final VisualBlockGenerator mainGenerator;
     private final Map<AbstractPlugin, List<VisualBlockGenerator>> dynamicVisualGenerator = new ConcurrentHashMap<>();
 
     public VisualBlockHandler() {
-        this.claimPositionTable = HashBasedTable.create();
-        this.claimCache = Caffeine.newBuilder()
-                .maximumSize(8000)
-                .build(coordinatePair -> {
-                    final int chunkX = coordinatePair.getX() >> 4;
-                    final int chunkZ = coordinatePair.getZ() >> 4;
-                    final int posX = coordinatePair.getX() % 16;
-                    final int posZ = coordinatePair.getZ() % 16;
-                    synchronized (claimPositionTable) {
-                        return Optional.ofNullable(claimPositionTable.get(new CoordinatePair(coordinatePair.getWorldName(), chunkX, chunkZ), new CoordXZ((byte) posX, (byte) posZ)));
-                    }
-                });
         TaskUtil.runAsyncRepeated(this, 1L);
         Imanity.registerMovementListener(new MovementListener() {
             @Override
@@ -99,52 +110,74 @@ public class VisualBlockHandler implements Runnable {
         })
         .ignoreSameBlock();
 
+        Events.subscribe(PlayerQuitEvent.class).listen((subscription, event) -> {
+            final Player player = event.getPlayer();
+            this.visualTasks.removeIf(task -> task.getPlayer() == player);
+            this.visuals.remove(player.getUniqueId());
+        });
+
         this.mainGenerator = (player, location, positions) -> {
+            final Long2ObjectMap<ClaimChunk> chunks = this.claimChunks.get(location.getWorld().getName());
+            if (chunks == null) {
+                return;
+            }
+
             final int minHeight = location.getBlockY() - 5;
             final int maxHeight = location.getBlockY() + 4;
 
             final int toX = location.getBlockX();
             final int toZ = location.getBlockZ();
 
-            final Collection<VisualBlockClaim> claimCache = new HashSet<>();
-
-            for (int x = toX - 7; x < toX + 7; x++) {
-                for (int z = toZ - 7; z < toZ + 7; z++) {
-                    final VisualBlockClaim color = getTeamAt(location.getWorld(), x, z);
-                    PreHandleVisualClaimEvent claimEvent = new PreHandleVisualClaimEvent(player, color);
+            final Map<VisualBlockClaim, CachedClaim> nearbyClaims = new IdentityHashMap<>();
 
-                    Imanity.callEvent(claimEvent);
+            for (int chunkX = (toX - 7) >> 4; chunkX <= (toX + 6) >> 4; chunkX++) {
+                for (int chunkZ = (toZ - 7) >> 4; chunkZ <= (toZ + 6) >> 4; chunkZ++) {
+                    final ClaimChunk chunk = chunks.get(LongHash.toLong(chunkX, chunkZ));
+                    if (chunk == null) {
+                        continue;
+                    }
 
-                    if (color != null && !claimEvent.isCancelled()) {
-                        claimCache.add(color);
+                    final int minX = Math.max(toX - 7, chunkX << 4);
+                    final int maxX = Math.min(toX + 6, (chunkX << 4) + 15);
+                    final int minZ = Math.max(toZ - 7, chunkZ << 4);
+                    final int maxZ = Math.min(toZ + 6, (chunkZ << 4) + 15);
+
+                    for (int x = minX; x <= maxX; x++) {
+                        for (int z = minZ; z <= maxZ; z++) {
+                            final CachedClaim claim = chunk.get(x, z);
+                            if (claim != null) {
+                                nearbyClaims.putIfAbsent(claim.claim, claim);
+                            }
+                        }
                     }
                 }
             }
 
-            if (!claimCache.isEmpty()) {
-                final Iterator<VisualBlockClaim> claims = claimCache.iterator();
-                while (claims.hasNext()) {
+            if (nearbyClaims.isEmpty()) {
+                return;
+            }
 
-                    VisualBlockClaim claim = claims.next();
-                    VisualType type = claim.getType();
+            final PreHandleVisualClaimEvent claimEvent = new PreHandleVisualClaimEvent(player, nearbyClaims.keySet());
+            Imanity.callEvent(claimEvent);
 
-                    for (final Vector edge : getEdges(claim)) {
-                        if (Math.abs(edge.getBlockX() - toX) > 7) {
-                            continue;
-                        }
-                        if (Math.abs(edge.getBlockZ() - toZ) > 7) {
-                            continue;
-                        }
-                        final Location location2 = edge.toLocation(location.getWorld());
-                        if (location2 == null) {
-                            continue;
-                        }
-                        for (int y = minHeight; y <= maxHeight; y++) {
-                            positions.add(new VisualPosition(location2.getBlockX(), y, location2.getBlockZ(), player.getWorld().getName(), type));
-                        }
+            if (claimEvent.isCancelled()) {
+                return;
+            }
+
+            final String worldName = player.getWorld().getName();
+            for (CachedClaim claim : nearbyClaims.values()) {
+                final VisualType type = claim.claim.getType();
+
+                for (final long edge : claim.edges) {
+                    final int x = LongHash.msw(edge);
+                    final int z = LongHash.lsw(edge);
+                    if (Math.abs(x - toX) > 7 || Math.abs(z - toZ) > 7) {
+                        continue;
                     }
 
-                    claims.remove();
+                    for (int y = minHeight; y <= maxHeight; y++) {
+                        positions.add(new VisualPosition(x, y, z, worldName, type));
+                    }
                 }
             }
         };
@@ -176,26 +209,69 @@ public class VisualBlockHandler implements Runnable {
     }
 
     public void cacheClaim(VisualBlockClaim claim) {
-        final World world = claim.getWorld();
-        final int minX = Math.min(claim.getMaxX(), claim.getMinX());
-        final int maxX = Math.max(claim.getMaxX(), claim.getMinX());
-        final int minZ = Math.min(claim.getMaxZ(), claim.getMinZ());
-        final int maxZ = Math.max(claim.getMaxZ(), claim.getMinZ());
-        for (int x = minX; x <= maxX; x++) {
-            for (int z = minZ; z <= maxZ; z++) {
-                final CoordinatePair worldPosition = new CoordinatePair(world, x, z);
-                final CoordinatePair chunkPair = new CoordinatePair(world, x >> 4, z >> 4);
-                final CoordXZ chunkPosition = new CoordXZ((byte) (x % 16), (byte) (z % 16));
-                synchronized (claimPositionTable) {
-                    claimPositionTable.put(chunkPair, chunkPosition, claim);
+        this.cacheClaims(Collections.singletonList(claim));
+    }
+
+    /**
+     * Cache many claims at once, every world map and chunk touched is only copied once for the whole collection
+     *
+     * @param claims the claims to cache
+     */
+    public void cacheClaims(Collection<? extends VisualBlockClaim> claims) {
+        if (claims.isEmpty()) {
+            return;
+        }
+
+        synchronized (this.claimLock) {
+            final Map<String, Long2ObjectMap<ClaimChunk>> worlds = new HashMap<>();
+            // chunks already copied by this call, they can be modified in place
+            final Map<String, LongSet> copiedChunks = new HashMap<>();
+
+            for (VisualBlockClaim claim : claims) {
+                final String worldName = claim.getWorld().getName();
+                final int minX = Math.min(claim.getMaxX(), claim.getMinX());
+                final int maxX = Math.max(claim.getMaxX(), claim.getMinX());
+                final int minZ = Math.min(claim.getMaxZ(), claim.getMinZ());
+                final int maxZ = Math.max(claim.getMaxZ(), claim.getMinZ());
+
+                final CachedClaim cachedClaim = new CachedClaim(claim, this.getPackedEdges(minX, maxX, minZ, maxZ));
+
+                Long2ObjectMap<ClaimChunk> chunks = worlds.get(worldName);
+                if (chunks == null) {
+                    final Long2ObjectMap<ClaimChunk> previous = this.claimChunks.get(worldName);
+                    chunks = previous != null ? new Long2ObjectOpenHashMap<>(previous) : new Long2ObjectOpenHashMap<>();
+                    worlds.put(worldName, chunks);
+                }
+                final LongSet copied = copiedChunks.computeIfAbsent(worldName, name -> new LongOpenHashSet());
+
+                for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+                    for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                        final long key = LongHash.toLong(chunkX, chunkZ);
+                        ClaimChunk chunk = chunks.get(key);
+                        if (copied.add(key)) {
+                            chunk = chunk != null ? chunk.copy() : new ClaimChunk();
+                            chunks.put(key, chunk);
+                        }
+
+                        final int fromX = Math.max(minX, chunkX << 4);
+                        final int toX = Math.min(maxX, (chunkX << 4) + 15);
+                        final int fromZ = Math.max(minZ, chunkZ << 4);
+                        final int toZ = Math.min(maxZ, (chunkZ << 4) + 15);
+                        for (int x = fromX; x <= toX; x++) {
+                            for (int z = fromZ; z <= toZ; z++) {
+                                chunk.set(x, z, cachedClaim);
+                            }
+                        }
+                    }
                 }
-                claimCache.invalidate(worldPosition);
             }
+
+            this.claimChunks.putAll(worlds);
         }
     }
 
     public void clearAll(final Player player, final boolean send) {
-        table.rowMap().remove(player.getUniqueId());
+        this.visuals.remove(player.getUniqueId());
         Imanity.IMPLEMENTATION.clearFakeBlocks(player, send);
     }
 
@@ -204,97 +280,222 @@ public class VisualBlockHandler implements Runnable {
     }
 
     public void clearVisualType(final Player player, final VisualType visualType, final Predicate<VisualBlock> predicate, final boolean send) {
+        final PlayerVisuals visuals = this.visuals.get(player.getUniqueId());
+        if (visuals == null) {
+            return;
+        }
+
         final List<BlockPosition> removeFromClient = new ArrayList<>();
-        synchronized (table) {
-            final Map<VisualPosition, VisualBlock> currentBlocks = table.row(player.getUniqueId());
-            for (final Map.Entry<VisualPosition, VisualBlock> entry : new ArrayList<>(currentBlocks.entrySet())) {
-                final VisualPosition blockPosition = entry.getKey();
-                final VisualBlock visualBlock = entry.getValue();
-                final VisualType blockVisualType = visualBlock.getVisualType();
-                if (blockVisualType.equals(visualType) && (predicate == null || predicate.apply(visualBlock))) {
-                    removeFromClient.add(blockPosition);
-                    currentBlocks.remove(blockPosition);
+        synchronized (visuals) {
+            final ObjectIterator<VisualBlock> iterator = visuals.blocks.values().iterator();
+            while (iterator.hasNext()) {
+                final VisualBlock visualBlock = iterator.next();
+                if (visualBlock.getVisualType().equals(visualType) && (predicate == null || predicate.apply(visualBlock))) {
+                    removeFromClient.add(visualBlock.getLocation());
+                    iterator.remove();
                 }
             }
         }
         Imanity.IMPLEMENTATION.setFakeBlocks(player, Collections.emptyMap(), removeFromClient, send);
     }
 
+    /**
+     * Must be called from the main thread, the world is read to skip solid blocks
+     */
     public Map<BlockPosition, MaterialData> addVisualType(final Player player, final Collection<VisualPosition> locations, final boolean send) {
+        Preconditions.checkState(Bukkit.isPrimaryThread(), "addVisualType reads the world, call it from the main thread");
+
+        final World world = player.getWorld();
         final Map<BlockPosition, MaterialData> sendToClient = new HashMap<>();
-        locations.removeIf(blockPosition -> {
-            final World world = player.getWorld();
-            final Block block = world.getBlockAt(blockPosition.getX(), blockPosition.getY(), blockPosition.getZ());
-            final Material material = block.getType();
-            return material.isSolid();
-        });
-        synchronized (table) {
-            final Iterator<VisualPosition> iterator = locations.iterator();
+        final PlayerVisuals visuals = this.getVisuals(player);
+        synchronized (visuals) {
             for (VisualPosition blockPosition : locations) {
+                if (this.isSolid(world, null, blockPosition)) {
+                    continue;
+                }
+
                 VisualType visualType = blockPosition.getType();
                 VisualBlockData visualBlockData = visualType.generate(player, blockPosition);
                 sendToClient.put(blockPosition, visualBlockData);
-                table.put(player.getUniqueId(), blockPosition, new VisualBlock(visualType, visualBlockData, blockPosition));
+                visuals.blocks.put(VisualBlockHandler.pack(blockPosition), new VisualBlock(visualType, visualBlockData, blockPosition));
             }
         }
         Imanity.IMPLEMENTATION.setFakeBlocks(player, sendToClient, Collections.emptyList(), send);
         return sendToClient;
     }
 
+    /**
+     * Must be called from the main thread, the world is read to skip solid blocks,
+     * use {@link #addVisualTask(Player, VisualTask)} from other threads
+     */
     public Map<BlockPosition, MaterialData> setVisualType(final Player player, final Collection<VisualPosition> locations, final boolean send) {
+        Preconditions.checkState(Bukkit.isPrimaryThread(), "setVisualType reads the world, call it from the main thread or use addVisualTask");
+
+        return this.setVisualType(player, locations, null, send);
+    }
+
+    private Map<BlockPosition, MaterialData> setVisualType(final Player player, final Collection<VisualPosition> locations, final Long2ObjectMap<ChunkSnapshot> snapshots, final boolean send) {
+        final World world = player.getWorld();
         final Map<BlockPosition, MaterialData> sendToClient = new HashMap<>();
         final List<BlockPosition> removeFromClient = new ArrayList<>();
-        locations.removeIf(blockPosition -> {
-            final World world = player.getWorld();
-            final Block block = world.getBlockAt(blockPosition.getX(), blockPosition.getY(), blockPosition.getZ());
-            final Material material = block.getType();
-            return material.isSolid();
-        });
-        synchronized (table) {
-            final Map<VisualPosition, VisualBlock> currentBlocks = table.row(player.getUniqueId());
-            for (final Map.Entry<VisualPosition, VisualBlock> entry : new ArrayList<>(currentBlocks.entrySet())) {
-                final VisualPosition blockPosition = entry.getKey();
-                final VisualBlock visualBlock = entry.getValue();
-                final VisualType blockVisualType = visualBlock.getVisualType();
-                if (blockVisualType.equals(blockPosition.getType())) {
-                    if (!locations.remove(blockPosition)) {
-                        removeFromClient.add(blockPosition);
-                        currentBlocks.remove(blockPosition);
-                    }
-                }
-            }
+        final PlayerVisuals visuals = this.getVisuals(player);
+        synchronized (visuals) {
+            final LongSet positions = new LongOpenHashSet(locations.size());
             for (VisualPosition blockPosition : locations) {
-                VisualType visualType = blockPosition.getType();
+                if (this.isSolid(world, snapshots, blockPosition)) {
+                    continue;
+                }
+
+                final long key = VisualBlockHandler.pack(blockPosition);
+                if (!positions.add(key)) {
+                    continue;
+                }
+
+                final VisualType visualType = blockPosition.getType();
+                final VisualBlock current = visuals.blocks.get(key);
+                if (current != null && current.getVisualType().equals(visualType)) {
+                    continue;
+                }
+
                 VisualBlockData visualBlockData = visualType.generate(player, blockPosition);
                 sendToClient.put(blockPosition, visualBlockData);
-                table.put(player.getUniqueId(), blockPosition, new VisualBlock(visualType, visualBlockData, blockPosition));
+                visuals.blocks.put(key, new VisualBlock(visualType, visualBlockData, blockPosition));
+            }
+
+            final ObjectIterator<Long2ObjectMap.Entry<VisualBlock>> iterator = visuals.blocks.long2ObjectEntrySet().iterator();
+            while (iterator.hasNext()) {
+                final Long2ObjectMap.Entry<VisualBlock> entry = iterator.next();
+                if (!positions.contains(entry.getLongKey())) {
+                    removeFromClient.add(entry.getValue().getLocation());
+                    iterator.remove();
+                }
             }
         }
-        Imanity.IMPLEMENTATION.setFakeBlocks(player, sendToClient, removeFromClient, send);
+
+        if (sendToClient.isEmpty() && removeFromClient.isEmpty()) {
+            return sendToClient;
+        }
+
+        Imanity.IMPLEMENTATION.setFakeBlocks(player, sendToClient, removeFromClient, blockPosition -> this.getRealBlock(world, snapshots, blockPosition), send);
         return sendToClient;
     }
 
+    private PlayerVisuals getVisuals(Player player) {
+        final PlayerVisuals visuals = this.visuals.computeIfAbsent(player.getUniqueId(), uuid -> new PlayerVisuals());
+        final String worldName = player.getWorld().getName();
+        synchronized (visuals) {
+            if (!worldName.equals(visuals.world)) {
+                // the client dropped the blocks of the old world with its chunks
+                if (visuals.world != null) {
+                    visuals.blocks.clear();
+                    Imanity.IMPLEMENTATION.clearFakeBlocks(player, false);
+                }
+                visuals.world = worldName;
+            }
+        }
+        return visuals;
+    }
+
+    /**
+     * Without snapshots the world is read, which only happens on the main thread. Off it a task has snapshots
+     * of every loaded chunk, so a missing one is a chunk that wasn't loaded and counts as solid, nothing is placed there.
+     */
+    private boolean isSolid(World world, Long2ObjectMap<ChunkSnapshot> snapshots, BlockPosition blockPosition) {
+        final ChunkSnapshot snapshot = snapshots != null ? snapshots.get(LongHash.toLong(blockPosition.getX() >> 4, blockPosition.getZ() >> 4)) : null;
+        if (snapshot == null) {
+            return !Bukkit.isPrimaryThread() || world.getBlockAt(blockPosition.getX(), blockPosition.getY(), blockPosition.getZ()).getType().isSolid();
+        }
+
+        if (blockPosition.getY() < 0 || blockPosition.getY() > 255) {
+            return false;
+        }
+
+        final Material material = Material.getMaterial(snapshot.getBlockTypeId(blockPosition.getX() & 15, blockPosition.getY(), blockPosition.getZ() & 15));
+        return material != null && material.isSolid();
+    }
+
+    private MaterialData getRealBlock(World world, Long2ObjectMap<ChunkSnapshot> snapshots, BlockPosition blockPosition) {
+        final ChunkSnapshot snapshot = snapshots != null ? snapshots.get(LongHash.toLong(blockPosition.getX() >> 4, blockPosition.getZ() >> 4)) : null;
+        if (snapshot == null) {
+            if (!Bukkit.isPrimaryThread()) {
+                // the chunk wasn't loaded when the task was captured, restore it as air rather than loading it async
+                return new MaterialData(0);
+            }
+
+            final Block block = world.getBlockAt(blockPosition.getX(), blockPosition.getY(), blockPosition.getZ());
+            return new MaterialData(block.getType().getId(), block.getData());
+        }
+
+        if (blockPosition.getY() < 0 || blockPosition.getY() > 255) {
+            return new MaterialData(0);
+        }
+
+        final int x = blockPosition.getX() & 15;
+        final int z = blockPosition.getZ() & 15;
+        return new MaterialData(snapshot.getBlockTypeId(x, blockPosition.getY(), z), (byte) snapshot.getBlockData(x, blockPosition.getY(), z));
+    }
+
+    /**
+     * Snapshot the chunks of the positions a player has and is about to get,
+     * must be called from the main thread
+     */
+    private Long2ObjectMap<ChunkSnapshot> captureChunks(final Player player, final Collection<VisualPosition> blockPositions) {
+        final LongSet chunkKeys = new LongOpenHashSet();
+        for (VisualPosition blockPosition : blockPositions) {
+            chunkKeys.add(LongHash.toLong(blockPosition.getX() >> 4, blockPosition.getZ() >> 4));
+        }
+
+        final PlayerVisuals visuals = this.visuals.get(player.getUniqueId());
+        if (visuals != null) {
+            synchronized (visuals) {
+                final LongIterator iterator = visuals.blocks.keySet().iterator();
+                while (iterator.hasNext()) {
+                    final long key = iterator.nextLong();
+                    chunkKeys.add(LongHash.toLong(VisualBlockHandler.unpackX(key) >> 4, VisualBlockHandler.unpackZ(key) >> 4));
+                }
+            }
+        }
+
+        final World world = player.getWorld();
+        final Long2ObjectMap<ChunkSnapshot> snapshots = new Long2ObjectOpenHashMap<>(chunkKeys.size());
+        final LongIterator iterator = chunkKeys.iterator();
+        while (iterator.hasNext()) {
+            final long key = iterator.nextLong();
+            final int chunkX = LongHash.msw(key);
+            final int chunkZ = LongHash.lsw(key);
+            if (!world.isChunkLoaded(chunkX, chunkZ)) {
+                continue;
+            }
+
+            snapshots.put(key, this.chunkSnapshots.get(
+                    new CoordinatePair(world, chunkX, chunkZ),
+                    pair -> world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(false, false, false)
+            ));
+        }
+        return snapshots;
+    }
+
     public VisualBlockClaim getClaimAt(final Location location) {
         return getTeamAt(location.getWorld(), location.getBlockX(), location.getBlockZ());
     }
 
     public VisualBlockClaim getTeamAt(final World world, final int x, final int z) {
-        try {
-            return claimCache.get(new CoordinatePair(world, x, z)).orElse(null);
-        } catch (final Exception exception) {
-            exception.printStackTrace();
-            final int chunkX = x >> 4;
-            final int chunkZ = z >> 4;
-            final byte posX = (byte) (x % 16);
-            final byte posZ = (byte) (z % 16);
-            synchronized (claimPositionTable) {
-                return claimPositionTable.get(new CoordinatePair(world, chunkX, chunkZ), new CoordXZ(posX, posZ));
-            }
+        final Long2ObjectMap<ClaimChunk> chunks = this.claimChunks.get(world.getName());
+        if (chunks == null) {
+            return null;
         }
+
+        final ClaimChunk chunk = chunks.get(LongHash.toLong(x >> 4, z >> 4));
+        if (chunk == null) {
+            return null;
+        }
+
+        final CachedClaim claim = chunk.get(x, z);
+        return claim != null ? claim.claim : null;
     }
 
     public void handlePositionChanged(final Player player, final Location location) {
-        if (this.claimPositionTable.isEmpty() && this.dynamicVisualGenerator.isEmpty()) {
+        if (this.claimChunks.isEmpty() && this.dynamicVisualGenerator.isEmpty()) {
             return;
         }
 
@@ -313,7 +514,7 @@ public class VisualBlockHandler implements Runnable {
 
         if (player.isOnline()) {
             visualTasks.removeIf(visualTask -> visualTask.getPlayer() == player);
-            visualTasks.add(new VisualTask(player, blockPositions));
+            visualTasks.add(new VisualTask(player, blockPositions, this.captureChunks(player, blockPositions)));
         }
     }
 
@@ -348,7 +549,48 @@ public class VisualBlockHandler implements Runnable {
 
     }
 
+    /**
+     * The columns on the border of a claim, packed with {@link LongHash#toLong(int, int)}
+     */
+    private long[] getPackedEdges(int minX, int maxX, int minZ, int maxZ) {
+        if (minX == maxX || minZ == maxZ) {
+            final long[] result = new long[(maxX - minX + 1) * (maxZ - minZ + 1)];
+            int index = 0;
+            for (int x = minX; x <= maxX; x++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    result[index++] = LongHash.toLong(x, z);
+                }
+            }
+            return result;
+        }
+
+        final long[] result = new long[(maxX - minX + 1) * 2 + (maxZ - minZ - 1) * 2];
+        int index = 0;
+        for (int x = minX; x <= maxX; x++) {
+            result[index++] = LongHash.toLong(x, minZ);
+            result[index++] = LongHash.toLong(x, maxZ);
+        }
+        for (int z = minZ + 1; z < maxZ; z++) {
+            result[index++] = LongHash.toLong(minX, z);
+            result[index++] = LongHash.toLong(maxX, z);
+        }
+        return result;
+    }
+
+    /**
+     * Queue the visual blocks of a player for the async task, a task without snapshots gets them
+     * captured on the main thread first, so a call from another thread is queued on the next tick
+     */
     public void addVisualTask(Player player, VisualTask task) {
+        if (task.getSnapshots() == null) {
+            if (!Bukkit.isPrimaryThread()) {
+                final VisualTask uncaptured = task;
+                TaskUtil.runSync(() -> this.addVisualTask(player, uncaptured));
+                return;
+            }
+            task = new VisualTask(task.getPlayer(), task.getBlockPositions(), this.captureChunks(task.getPlayer(), task.getBlockPositions()));
+        }
+
         this.visualTasks.removeIf(otherTask -> otherTask.getPlayer() == player);
         this.visualTasks.add(task);
     }
@@ -361,7 +603,70 @@ public class VisualBlockHandler implements Runnable {
     public void run() {
         VisualTask visualTask;
         while ((visualTask = visualTasks.poll()) != null) {
-            this.setVisualType(visualTask.getPlayer(), visualTask.getBlockPositions(), true);
+            if (!visualTask.getPlayer().isOnline()) {
+                this.visuals.remove(visualTask.getPlayer().getUniqueId());
+                continue;
+            }
+            this.setVisualType(visualTask.getPlayer(), visualTask.getBlockPositions(), visualTask.getSnapshots(), true);
+        }
+    }
+
+    private static long pack(BlockPosition blockPosition) {
+        return ((long) blockPosition.getX() & 0x3FFFFFF) << 38
+                | ((long) blockPosition.getZ() & 0x3FFFFFF) << 12
+                | (blockPosition.getY() & 0xFFF);
+    }
+
+    private static int unpackX(long key) {
+        return (int) (key >> 38);
+    }
+
+    private static int unpackZ(long key) {
+        return (int) (key << 26 >> 38);
+    }
+
+    private static class PlayerVisuals {
+
+        private final Long2ObjectMap<VisualBlock> blocks = new Long2ObjectOpenHashMap<>();
+        private String world;
+
+    }
+
+    private static class CachedClaim {
+
+        private final VisualBlockClaim claim;
+        private final long[] edges;
+
+        private CachedClaim(VisualBlockClaim claim, long[] edges) {
+            this.claim = claim;
+            this.edges = edges;
         }
+
+    }
+
+    private static class ClaimChunk {
+
+        private final CachedClaim[] claims;
+
+        private ClaimChunk() {
+            this(new CachedClaim[256]);
+        }
+
+        private ClaimChunk(CachedClaim[] claims) {
+            this.claims = claims;
+        }
+
+        private CachedClaim get(int x, int z) {
+            return this.claims[(z & 15) << 4 | (x & 15)];
+        }
+
+        private void set(int x, int z, CachedClaim claim) {
+            this.claims[(z & 15) << 4 | (x & 15)] = claim;
+        }
+
+        private ClaimChunk copy() {
+            return new ClaimChunk(this.claims.clone());
+        }
+
     }
 }
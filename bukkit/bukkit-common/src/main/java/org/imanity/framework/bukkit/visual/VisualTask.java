@@ -24,8 +24,10 @@
 
 package org.imanity.framework.bukkit.visual;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import lombok.Getter;
 import net.minecraft.server.v1_8_R3.BlockPosition;
+import org.bukkit.ChunkSnapshot;
 import org.bukkit.entity.Player;
 import org.imanity.framework.bukkit.visual.type.VisualType;
 
@@ -37,9 +39,20 @@ public class VisualTask {
     private final Player player;
     private final Set<VisualPosition> blockPositions;
 
+    /*
+     * The chunks around the positions captured on the main thread, a task created
+     * without them gets them captured by addVisualTask before it is queued
+     */
+    private final Long2ObjectMap<ChunkSnapshot> snapshots;
+
     public VisualTask(final Player player, final Set<VisualPosition> blockPositions) {
+        this(player, blockPositions, null);
+    }
+
+    public VisualTask(final Player player, final Set<VisualPosition> blockPositions, final Long2ObjectMap<ChunkSnapshot> snapshots) {
         this.player = player;
         this.blockPositions = blockPositions;
+        this.snapshots = snapshots;
     }
 
 }
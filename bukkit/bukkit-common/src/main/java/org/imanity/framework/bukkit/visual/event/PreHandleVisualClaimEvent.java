@@ -32,6 +32,8 @@ import org.bukkit.event.HandlerList;
 import org.bukkit.event.player.PlayerEvent;
 import org.imanity.framework.bukkit.visual.VisualBlockClaim;
 
+import java.util.Collection;
+
 @Getter
 @Setter
 public class PreHandleVisualClaimEvent extends PlayerEvent implements Cancellable {
@@ -39,11 +41,16 @@ public class PreHandleVisualClaimEvent extends PlayerEvent implements Cancellabl
     private static final HandlerList HANDLER_LIST = new HandlerList();
 
     private boolean cancelled;
-    private VisualBlockClaim claim;
 
-    public PreHandleVisualClaimEvent(Player who, VisualBlockClaim claim) {
+    /*
+     * Every claim near the player in this pass, remove a claim to skip
+     * its border or cancel to skip all of them.
+     */
+    private final Collection<VisualBlockClaim> claims;
+
+    public PreHandleVisualClaimEvent(Player who, Collection<VisualBlockClaim> claims) {
         super(who);
-        this.claim = claim;
+        this.claims = claims;
     }
 
     @Override
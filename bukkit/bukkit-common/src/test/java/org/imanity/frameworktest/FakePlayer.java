@@ -0,0 +1,132 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Imanity
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package org.imanity.frameworktest;
+
+import org.bukkit.entity.Player;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * A {@link Player} backed by a {@link Proxy}, it counts every call and keeps the players it hides like CraftPlayer does
+ *
+ * Methods without an answer return null, false or 0.
+ */
+public final class FakePlayer implements InvocationHandler {
+
+    private final UUID uuid = UUID.randomUUID();
+    private final String name;
+    private final Player player;
+
+    private final Set<Player> hiddenPlayers = new HashSet<>();
+    private final Map<String, Integer> calls = new HashMap<>();
+    private final Map<String, Function<Object[], Object>> answers = new HashMap<>();
+
+    private FakePlayer(String name) {
+        this.name = name;
+        this.player = (Player) Proxy.newProxyInstance(FakePlayer.class.getClassLoader(), new Class[] { Player.class }, this);
+    }
+
+    public static FakePlayer create(String name) {
+        return new FakePlayer(name);
+    }
+
+    public static List<FakePlayer> create(int amount) {
+        List<FakePlayer> players = new ArrayList<>(amount);
+        for (int i = 0; i < amount; i++) {
+            players.add(FakePlayer.create("player" + i));
+        }
+        return players;
+    }
+
+    public static List<Player> players(Collection<FakePlayer> fakePlayers) {
+        List<Player> players = new ArrayList<>(fakePlayers.size());
+        for (FakePlayer fakePlayer : fakePlayers) {
+            players.add(fakePlayer.get());
+        }
+        return players;
+    }
+
+    public Player get() {
+        return this.player;
+    }
+
+    public Set<Player> getHiddenPlayers() {
+        return this.hiddenPlayers;
+    }
+
+    public FakePlayer answer(String method, Function<Object[], Object> answer) {
+        this.answers.put(method, answer);
+        return this;
+    }
+
+    public int calls(String method) {
+        return this.calls.getOrDefault(method, 0);
+    }
+
+    public void resetCalls() {
+        this.calls.clear();
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        String name = method.getName();
+        this.calls.merge(name, 1, Integer::sum);
+
+        Function<Object[], Object> answer = this.answers.get(name);
+        if (answer != null) {
+            return answer.apply(args);
+        }
+
+        switch (name) {
+            case "getUniqueId":
+                return this.uuid;
+            case "getName":
+            case "toString":
+                return this.name;
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "isOnline":
+                return true;
+            case "canSee":
+                return !this.hiddenPlayers.contains((Player) args[0]);
+            case "hidePlayer":
+                this.hiddenPlayers.add((Player) args[0]);
+                return null;
+            case "showPlayer":
+                this.hiddenPlayers.remove((Player) args[0]);
+                return null;
+            default:
+                return FakeServer.defaultValue(method.getReturnType());
+        }
+    }
+
+}
@@ -0,0 +1,198 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Imanity
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package org.imanity.frameworktest;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemFactory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.imanity.framework.bukkit.Imanity;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Logger;
+
+/**
+ * A {@link Server} backed by a {@link Proxy}, installed once as the Bukkit server and as the server of {@link Imanity#PLUGIN}
+ *
+ * It knows the online players, creates inventories and hands out item metas, a plugin manager and a scheduler that do nothing.
+ */
+public final class FakeServer {
+
+    private static final List<Player> ONLINE_PLAYERS = new CopyOnWriteArrayList<>();
+    private static Server server;
+
+    private FakeServer() {
+    }
+
+    public static synchronized void install() {
+        if (server == null) {
+            ItemMeta itemMeta = FakeServer.proxy(ItemMeta.class, (self, method, args) -> method.getName().equals("clone") ? self : null);
+            ItemFactory itemFactory = FakeServer.proxy(ItemFactory.class, (self, method, args) -> {
+                switch (method.getName()) {
+                    case "getItemMeta":
+                        return itemMeta;
+                    case "isApplicable":
+                        return true;
+                    case "asMetaFor":
+                        return args[0];
+                    case "equals":
+                        return args.length == 2 ? args[0] == args[1] : self == args[0];
+                    default:
+                        return null;
+                }
+            });
+
+            // events are called to nobody and tasks are never run
+            PluginManager pluginManager = FakeServer.proxy(PluginManager.class, (self, method, args) -> null);
+            BukkitScheduler scheduler = FakeServer.proxy(BukkitScheduler.class, (self, method, args) -> null);
+
+            server = FakeServer.proxy(Server.class, (self, method, args) -> {
+                switch (method.getName()) {
+                    case "getLogger":
+                        return Logger.getLogger(FakeServer.class.getName());
+                    case "getName":
+                    case "getVersion":
+                    case "getBukkitVersion":
+                        return "test";
+                    case "getOnlinePlayers":
+                        return ONLINE_PLAYERS;
+                    case "getItemFactory":
+                        return itemFactory;
+                    case "getPluginManager":
+                        return pluginManager;
+                    case "getScheduler":
+                        return scheduler;
+                    case "createInventory":
+                        return FakeServer.createInventory((InventoryHolder) args[0], args[1] instanceof Integer ? (Integer) args[1] : 27, args.length > 2 ? (String) args[2] : "Chest");
+                    default:
+                        return null;
+                }
+            });
+
+            if (Bukkit.getServer() == null) {
+                Bukkit.setServer(server);
+            }
+        }
+
+        Imanity.PLUGIN = FakeServer.proxy(Plugin.class, (self, method, args) -> method.getName().equals("getServer") ? server : null);
+    }
+
+    public static void setOnline(Collection<FakePlayer> fakePlayers) {
+        ONLINE_PLAYERS.clear();
+        ONLINE_PLAYERS.addAll(FakePlayer.players(fakePlayers));
+    }
+
+    private static Inventory createInventory(InventoryHolder holder, int size, String title) {
+        ItemStack[] contents = new ItemStack[size];
+        return FakeServer.proxy(Inventory.class, (self, method, args) -> {
+            switch (method.getName()) {
+                case "getHolder":
+                    return holder;
+                case "getSize":
+                    return size;
+                case "getTitle":
+                case "getName":
+                    return title;
+                case "getItem":
+                    return contents[(Integer) args[0]];
+                case "setItem":
+                    contents[(Integer) args[0]] = (ItemStack) args[1];
+                    return null;
+                case "getContents":
+                    return contents.clone();
+                case "clear":
+                    if (args == null) {
+                        Arrays.fill(contents, null);
+                    }
+                    return null;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    /**
+     * Proxy an interface, Object methods are answered by identity and unanswered methods return null, false or 0
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(FakeServer.class.getClassLoader(), new Class[] { type }, (self, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "hashCode":
+                        return System.identityHashCode(self);
+                    case "equals":
+                        return self == args[0];
+                    default:
+                        return type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(self));
+                }
+            }
+
+            Object result = handler.handle(self, method, args);
+            return result != null ? result : FakeServer.defaultValue(method.getReturnType());
+        });
+    }
+
+    static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == double.class) {
+            return 0D;
+        } else if (type == float.class) {
+            return 0F;
+        } else if (type == short.class) {
+            return (short) 0;
+        } else if (type == byte.class) {
+            return (byte) 0;
+        } else if (type == char.class) {
+            return (char) 0;
+        }
+        return null;
+    }
+
+    interface Handler {
+
+        Object handle(Object self, Method method, Object[] args);
+
+    }
+
+}
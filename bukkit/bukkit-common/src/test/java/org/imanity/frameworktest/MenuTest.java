@@ -0,0 +1,191 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Imanity
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package org.imanity.frameworktest;
+
+import org.bukkit.Material;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.*;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryView;
+import org.bukkit.inventory.ItemStack;
+import org.imanity.framework.bukkit.menu.Button;
+import org.imanity.framework.bukkit.menu.Menu;
+import org.imanity.framework.bukkit.menu.MenuListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MenuTest {
+
+    private static final int MENUS = 1000;
+
+    private List<FakePlayer> fakePlayers;
+    private List<TestMenu> menus;
+    private MenuListener menuListener;
+
+    @Before
+    public void setup() {
+        FakeServer.install();
+        this.fakePlayers = FakePlayer.create(MENUS);
+        FakeServer.setOnline(this.fakePlayers);
+
+        this.menus = new ArrayList<>();
+        this.menuListener = new MenuListener();
+    }
+
+    @After
+    public void teardown() {
+        for (TestMenu menu : this.menus) {
+            menu.remove();
+        }
+    }
+
+    @Test
+    public void switchingMenusKeepsTheNewMenu() {
+        Player player = this.fakePlayers.get(0).get();
+        TestMenu first = this.open(player);
+        TestMenu second = this.open(player);
+
+        assertTrue(first.closed);
+        assertFalse(second.closed);
+        assertSame(second, Menu.getMenuByUuid(player.getUniqueId()));
+
+        // the close event of the first inventory arrives after the second one opened
+        this.menuListener.onInventoryClose(new InventoryCloseEvent(this.view(player, first.getInventory())));
+
+        assertFalse(second.closed);
+        assertSame(second, Menu.getMenuByUuid(player.getUniqueId()));
+        assertEquals(1, Menu.getMenusByType(TestMenu.class).size());
+    }
+
+    @Test
+    public void closingTheInventoryRemovesTheMenu() {
+        Player player = this.fakePlayers.get(0).get();
+        TestMenu menu = this.open(player);
+
+        this.menuListener.onInventoryClose(new InventoryCloseEvent(this.view(player, menu.getInventory())));
+
+        assertTrue(menu.closed);
+        assertNull(Menu.getMenuByUuid(player.getUniqueId()));
+        assertTrue(Menu.getMenusByType(TestMenu.class).isEmpty());
+    }
+
+    @Test
+    public void clickOnlyReachesItsOwnMenu() {
+        for (FakePlayer fakePlayer : this.fakePlayers) {
+            this.open(fakePlayer.get());
+            fakePlayer.resetCalls();
+        }
+
+        FakePlayer clicker = this.fakePlayers.get(MENUS / 2);
+        TestMenu menu = this.menus.get(MENUS / 2);
+
+        InventoryView view = this.view(clicker.get(), menu.getInventory());
+        this.menuListener.onInventoryClick(new InventoryClickEvent(view, InventoryType.SlotType.CONTAINER, 0, ClickType.LEFT, InventoryAction.PICKUP_ALL));
+
+        for (int i = 0; i < MENUS; i++) {
+            assertEquals(i == MENUS / 2 ? 1 : 0, this.menus.get(i).clicks);
+            if (i != MENUS / 2) {
+                assertEquals(0, this.fakePlayers.get(i).calls("getUniqueId"));
+            }
+        }
+    }
+
+    private TestMenu open(Player player) {
+        TestMenu menu = new TestMenu();
+        menu.open(player);
+        this.menus.add(menu);
+        return menu;
+    }
+
+    private InventoryView view(Player player, Inventory inventory) {
+        return new InventoryView() {
+            @Override
+            public Inventory getTopInventory() {
+                return inventory;
+            }
+
+            @Override
+            public Inventory getBottomInventory() {
+                return null;
+            }
+
+            @Override
+            public HumanEntity getPlayer() {
+                return player;
+            }
+
+            @Override
+            public InventoryType getType() {
+                return InventoryType.CHEST;
+            }
+        };
+    }
+
+    private static class TestMenu extends Menu {
+
+        private int clicks;
+        private boolean closed;
+
+        @Override
+        public void draw(boolean firstInitial) {
+            this.set(0, new Button() {
+                @Override
+                public ItemStack getButtonItem(Player player) {
+                    return new ItemStack(Material.STONE);
+                }
+
+                @Override
+                public boolean shouldCancel(Player player, int slot, ClickType clickType) {
+                    return false;
+                }
+
+                @Override
+                public void clicked(Player player, int slot, ClickType clickType, int hotbarButton) {
+                    TestMenu.this.clicks++;
+                }
+            });
+        }
+
+        @Override
+        public String getTitle() {
+            return "test";
+        }
+
+        @Override
+        public void onClose(Player player) {
+            this.closed = true;
+        }
+
+    }
+
+}
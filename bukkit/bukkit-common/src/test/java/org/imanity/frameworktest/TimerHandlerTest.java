@@ -0,0 +1,230 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Imanity
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package org.imanity.frameworktest;
+
+import org.bukkit.entity.Player;
+import org.imanity.framework.bukkit.timer.Timer;
+import org.imanity.framework.bukkit.timer.TimerHandler;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TimerHandlerTest {
+
+    private long now;
+    private TimerHandler timerHandler;
+
+    @Before
+    public void setup() {
+        FakeServer.install();
+
+        this.timerHandler = new TimerHandler();
+        this.timerHandler.init();
+        this.now = System.currentTimeMillis();
+    }
+
+    @Test
+    public void parkedTimerIsOnlyLookedAtWhenDue() {
+        TestTimer timer = this.add(new TestTimer(10_000L, false));
+
+        this.runFor(9_000L);
+        assertEquals(0, timer.finished);
+        assertEquals(1, timer.checks);
+
+        this.runFor(2_000L);
+        assertEquals(1, timer.finished);
+        assertNull(this.timerHandler.getTimer(TestTimer.class));
+    }
+
+    @Test
+    public void tickingTimerIsTickedEveryRun() {
+        TestTimer timer = this.add(new TestTimer(10_000L, true));
+        this.pickUp();
+
+        for (int i = 0; i < 20; i++) {
+            this.runFor(250L);
+        }
+        assertEquals(20, timer.ticks);
+        assertEquals(0, timer.finished);
+    }
+
+    @Test
+    public void shortenedTimerIsRescheduled() {
+        TestTimer timer = this.add(new TestTimer(60_000L, false));
+        this.pickUp();
+        this.runFor(250L);
+
+        timer.duration(1_000L);
+        this.timerHandler.reschedule(timer);
+
+        this.runFor(1_000L);
+        assertEquals(1, timer.finished);
+    }
+
+    @Test
+    public void timerStartingToTickIsRescheduled() {
+        TestTimer timer = this.add(new TestTimer(60_000L, false));
+        this.pickUp();
+        this.runFor(250L);
+
+        timer.ticking = true;
+        this.timerHandler.reschedule(timer);
+        this.pickUp();
+
+        this.runFor(500L);
+        assertEquals(2, timer.ticks);
+    }
+
+    @Test
+    public void clearedTimerIsNeverProcessed() {
+        TestTimer timer = this.add(new TestTimer(1_000L, true));
+        this.timerHandler.clear(timer);
+
+        this.runFor(2_000L);
+        assertEquals(0, timer.ticks);
+        assertEquals(0, timer.finished);
+        assertFalse(this.timerHandler.isTimerRunning(TestTimer.class));
+    }
+
+    @Test
+    public void onlyDueTimersAreProcessed() {
+        List<TestTimer> timers = new ArrayList<>();
+        for (int i = 1; i <= 1000; i++) {
+            timers.add(this.add(new TestTimer(i * 1_000L, false)));
+        }
+
+        this.runFor(10_500L);
+        for (int i = 0; i < timers.size(); i++) {
+            TestTimer timer = timers.get(i);
+            assertEquals(i < 10 ? 1 : 0, timer.finished);
+            // looked at once when scheduled and, for the elapsed ones, once more when due
+            assertTrue(timer.checks <= 2);
+        }
+    }
+
+    private TestTimer add(TestTimer timer) {
+        this.timerHandler.add(timer);
+        return timer;
+    }
+
+    /*
+     * Timers added since the last run are put on the wheel by the next run
+     */
+    private void pickUp() {
+        this.runFor(250L);
+    }
+
+    /*
+     * Moves the clock forward and runs the handler like the repeating task does every 5 ticks
+     */
+    private void runFor(long millis) {
+        long to = this.now + millis;
+        while (this.now < to) {
+            this.now = Math.min(this.now + 250L, to);
+            this.timerHandler.run(this.now);
+        }
+    }
+
+    private class TestTimer implements Timer {
+
+        private final long beginTime = TimerHandlerTest.this.now;
+        private long duration;
+        private boolean ticking;
+
+        private int ticks, checks, finished;
+
+        private TestTimer(long duration, boolean ticking) {
+            this.duration = duration;
+            this.ticking = ticking;
+        }
+
+        @Override
+        public boolean isTimerElapsed() {
+            this.checks++;
+            return TimerHandlerTest.this.now > this.beginTime + this.duration;
+        }
+
+        @Override
+        public boolean isPaused() {
+            return false;
+        }
+
+        @Override
+        public boolean finish() {
+            this.finished++;
+            return true;
+        }
+
+        @Override
+        public void pause() {
+        }
+
+        @Override
+        public void clear(boolean removeFromHandler) {
+        }
+
+        @Override
+        public void tick() {
+            this.ticks++;
+        }
+
+        @Override
+        public boolean isTicking() {
+            return this.ticking;
+        }
+
+        @Override
+        public String getScoreboardText(Player player) {
+            return null;
+        }
+
+        @Override
+        public long timeRemaining() {
+            return this.beginTime + this.duration - TimerHandlerTest.this.now;
+        }
+
+        @Override
+        public int secondsRemaining() {
+            return (int) Math.ceil(this.timeRemaining() / 1000D);
+        }
+
+        @Override
+        public void extend(long millis) {
+            this.duration += millis;
+        }
+
+        @Override
+        public void duration(long duration) {
+            this.duration = duration;
+        }
+
+    }
+
+}
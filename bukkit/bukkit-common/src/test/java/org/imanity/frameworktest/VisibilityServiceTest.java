@@ -0,0 +1,147 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Imanity
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package org.imanity.frameworktest;
+
+import org.bukkit.entity.Player;
+import org.imanity.framework.bukkit.visibility.VisibilityOption;
+import org.imanity.framework.bukkit.visibility.VisibilityService;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class VisibilityServiceTest {
+
+    private static final int PLAYERS = 200;
+
+    private List<FakePlayer> fakePlayers;
+    private VisibilityService visibilityService;
+
+    @Before
+    public void setup() {
+        FakeServer.install();
+        this.fakePlayers = FakePlayer.create(PLAYERS);
+        FakeServer.setOnline(this.fakePlayers);
+
+        this.visibilityService = new VisibilityService();
+        this.visibilityService.preInit();
+    }
+
+    @Test
+    public void noOpUpdateDoesNotCallBukkit() {
+        this.visibilityService.register((player, target) -> VisibilityOption.NOTHING);
+
+        this.visibilityService.updateAll();
+        for (FakePlayer fakePlayer : this.fakePlayers) {
+            this.visibilityService.markDirty(fakePlayer.get());
+        }
+        this.visibilityService.updateDirty();
+
+        for (FakePlayer fakePlayer : this.fakePlayers) {
+            assertEquals(0, fakePlayer.calls("showPlayer"));
+            assertEquals(0, fakePlayer.calls("hidePlayer"));
+        }
+    }
+
+    @Test
+    public void onlyFlippedDecisionsCallBukkit() {
+        Player hidden = this.fakePlayers.get(0).get();
+        this.visibilityService.register((player, target) -> target == hidden ? VisibilityOption.HIDE : VisibilityOption.NOTHING);
+
+        this.visibilityService.updateAll();
+        for (int i = 1; i < PLAYERS; i++) {
+            assertEquals(1, this.fakePlayers.get(i).calls("hidePlayer"));
+            assertFalse(this.fakePlayers.get(i).get().canSee(hidden));
+        }
+
+        for (FakePlayer fakePlayer : this.fakePlayers) {
+            fakePlayer.resetCalls();
+        }
+        this.visibilityService.markDirty(hidden);
+        this.visibilityService.updateDirty();
+
+        for (FakePlayer fakePlayer : this.fakePlayers) {
+            assertEquals(0, fakePlayer.calls("showPlayer"));
+            assertEquals(0, fakePlayer.calls("hidePlayer"));
+        }
+    }
+
+    @Test
+    public void decisionsAreCachedUntilMarkedDirty() {
+        AtomicInteger checks = new AtomicInteger();
+        this.visibilityService.register((player, target) -> {
+            checks.incrementAndGet();
+            return VisibilityOption.NOTHING;
+        });
+
+        this.visibilityService.updateAll();
+        assertEquals(PLAYERS * (PLAYERS - 1), checks.get());
+
+        checks.set(0);
+        this.visibilityService.updateAll();
+        assertEquals(0, checks.get());
+
+        // only the row and the column of the dirty player are decided again
+        this.visibilityService.markDirty(this.fakePlayers.get(0).get());
+        this.visibilityService.updateDirty();
+        assertEquals(2 * (PLAYERS - 1), checks.get());
+
+        checks.set(0);
+        this.visibilityService.updateAll();
+        assertEquals(0, checks.get());
+    }
+
+    @Test
+    public void bukkitStateIsTrusted() {
+        FakePlayer viewer = this.fakePlayers.get(0);
+        Player target = this.fakePlayers.get(1).get();
+
+        // hidden by another plugin, or still hidden from before a relog
+        viewer.getHiddenPlayers().add(target);
+        this.visibilityService.register((player, other) -> VisibilityOption.NOTHING);
+
+        this.visibilityService.update(viewer.get());
+
+        assertEquals(1, viewer.calls("showPlayer"));
+        assertTrue(viewer.get().canSee(target));
+    }
+
+    @Test
+    public void updateCoversPlayersNeverIndexed() {
+        FakePlayer viewer = this.fakePlayers.get(0);
+        this.visibilityService.register((player, target) -> player == viewer.get() ? VisibilityOption.HIDE : VisibilityOption.NOTHING);
+
+        // no updateAll, the other players were online before the service knew about them
+        this.visibilityService.update(viewer.get());
+
+        assertEquals(PLAYERS - 1, viewer.calls("hidePlayer"));
+        assertEquals(PLAYERS - 1, viewer.getHiddenPlayers().size());
+    }
+
+}
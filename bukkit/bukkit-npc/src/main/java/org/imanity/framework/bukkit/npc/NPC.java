@@ -43,6 +43,8 @@ import org.imanity.framework.bukkit.npc.modifier.*;
 import org.imanity.framework.bukkit.npc.profile.Profile;
 import org.imanity.framework.bukkit.npc.tracker.NPCTrackerEntry;
 import org.imanity.framework.bukkit.npc.util.AxisAlignedBB;
+import org.imanity.framework.bukkit.packet.PacketBatch;
+import org.imanity.framework.bukkit.packet.PacketService;
 import org.imanity.framework.util.FastRandom;
 import org.jetbrains.annotations.NotNull;
 
@@ -113,10 +115,6 @@ public class NPC {
 
     }
 
-    public void render() {
-        this.trackerEntry.render();
-    }
-
     public void look(Location location) {
         double xDifference = location.getX() - this.getLocation().getX();
         double yDifference = location.getY() - this.getLocation().getY();
@@ -210,8 +208,14 @@ public class NPC {
     }
 
     public void show(@NotNull Player player) {
+        try (PacketBatch batch = PacketService.newBatch()) {
+            this.show(player, batch);
+        }
+    }
+
+    public void show(@NotNull Player player, @NotNull PacketBatch batch) {
         VisibilityModifier visibilityModifier = new VisibilityModifier(this);
-        visibilityModifier.queuePlayerListChange(EnumWrappers.PlayerInfoAction.ADD_PLAYER).send(player);
+        visibilityModifier.queuePlayerListChange(EnumWrappers.PlayerInfoAction.ADD_PLAYER).send(batch, player);
 
         Imanity.TASK_CHAIN_FACTORY
                 .newChain()
@@ -226,10 +230,16 @@ public class NPC {
     }
 
     public void hide(@NotNull Player player) {
+        try (PacketBatch batch = PacketService.newBatch()) {
+            this.hide(player, batch);
+        }
+    }
+
+    public void hide(@NotNull Player player, @NotNull PacketBatch batch) {
         new VisibilityModifier(this)
                 .queuePlayerListChange(EnumWrappers.PlayerInfoAction.REMOVE_PLAYER)
                 .queueDestroy()
-                .send(player);
+                .send(batch, player);
     }
 
     public void untrack(Player player) {
@@ -32,7 +32,6 @@ import com.comphenix.protocol.events.PacketContainer;
 import com.comphenix.protocol.events.PacketEvent;
 import com.comphenix.protocol.wrappers.EnumWrappers;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -50,7 +49,10 @@ import org.bukkit.plugin.java.JavaPlugin;
 import org.imanity.framework.bukkit.npc.event.PlayerNPCInteractEvent;
 import org.imanity.framework.bukkit.npc.modifier.AnimationModifier;
 import org.imanity.framework.bukkit.npc.modifier.MetadataModifier;
+import org.imanity.framework.bukkit.npc.tracker.PlayerGrid;
 import org.imanity.framework.bukkit.npc.util.AxisAlignedBB;
+import org.imanity.framework.bukkit.packet.PacketBatch;
+import org.imanity.framework.bukkit.packet.PacketService;
 import org.imanity.framework.bukkit.plugin.BukkitPlugin;
 import org.imanity.framework.bukkit.util.CoordXZ;
 import org.imanity.framework.bukkit.util.TaskUtil;
@@ -65,12 +67,14 @@ import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Getter
 public class NPCPool implements Listener {
 
     private static final Map<String, NPCPool> NPC_POOLS = new HashMap<>();
-    private static final ExecutorService EXECUTOR_SERVICE = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+    private static final int RENDER_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    private static final ExecutorService EXECUTOR_SERVICE = Executors.newFixedThreadPool(RENDER_THREADS, new ThreadFactoryBuilder()
             .setNameFormat("NPC-Render-Pool-%d")
             .setDaemon(true)
             .setUncaughtExceptionHandler((thread, throwable) -> Stacktrace.print(throwable))
@@ -91,6 +95,12 @@ public class NPCPool implements Listener {
     private final double actionDistance;
     private final long tabListRemoveTicks;
     private final Map<Integer, NPC> npcMap = new ConcurrentHashMap<>();
+    private final Map<UUID, NPC> npcByUniqueId = new ConcurrentHashMap<>();
+    // viewer -> the NPCs shown to that viewer, kept up to date by the tracker entries
+    private final Map<UUID, Set<NPC>> viewedNPCs = new ConcurrentHashMap<>();
+    // the NPCs to tick, swapped on add and remove so ticking never copies
+    private volatile NPC[] npcs = new NPC[0];
+    private final AtomicBoolean rendering = new AtomicBoolean();
     private final Map<Long, CachedChunk> chunkSnapshots = new ConcurrentHashMap<>();
 
     private long xzToKey(int x, int z) {
@@ -137,7 +147,7 @@ public class NPCPool implements Listener {
 
     public MaterialData getBlockAt(Location location) {
 
-        CachedChunk chunk = this.getChunkAt(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+        CachedChunk chunk = this.getChunkAt(location.getBlockX(), location.getBlockZ());
 
         if (chunk != null) {
             int cx = location.getBlockX() & 0xF;
@@ -151,7 +161,7 @@ public class NPCPool implements Listener {
 
     public MaterialData getBlockAt(int x, int y, int z) {
 
-        CachedChunk chunk = this.getChunkAt(x >> 4, z >> 4);
+        CachedChunk chunk = this.getChunkAt(x, z);
 
         if (chunk != null) {
             int cx = x & 0xF;
@@ -172,7 +182,7 @@ public class NPCPool implements Listener {
             for (int y = minY; y < maxY; y++) {
                 for (int z = minZ; z < maxZ; z++) {
 
-                    MaterialData materialData = this.getBlockAt(new Location(this.world, x, y, z));
+                    MaterialData materialData = this.getBlockAt(x, y, z);
                     if (materialData != null) {
                         for (Material material : materials) {
                             if (material == materialData.getItemType()) {
@@ -215,8 +225,8 @@ public class NPCPool implements Listener {
                 PacketContainer packetContainer = event.getPacket();
                 int targetId = packetContainer.getIntegers().read(0);
 
-                if (npcMap.containsKey(targetId)) {
-                    NPC npc = npcMap.get(targetId);
+                NPC npc = npcMap.get(targetId);
+                if (npc != null) {
                     EnumWrappers.EntityUseAction action = packetContainer.getEntityUseActions().read(0);
 
                     try (ServerThreadLock lock = ServerThreadLock.obtain()) {
@@ -231,15 +241,32 @@ public class NPCPool implements Listener {
     private void npcTick() {
 
         TaskUtil.runRepeated(() -> {
-            List<NPC> npcs = ImmutableList.copyOf(this.npcMap.values());
+            NPC[] npcs = this.npcs;
+            if (npcs.length == 0) {
+                return;
+            }
 
             for (NPC npc : npcs) {
                 npc.tick();
             }
 
-            EXECUTOR_SERVICE.submit(() -> {
-                for (NPC npc : npcs) {
-                    npc.render();
+            // skip rendering this tick if the last one is still running
+            if (!this.rendering.compareAndSet(false, true)) {
+                return;
+            }
+
+            PlayerGrid players = PlayerGrid.capture(this.world);
+            for (NPC npc : npcs) {
+                npc.getTrackerEntry().capture();
+            }
+
+            EXECUTOR_SERVICE.execute(() -> {
+                try (PacketBatch batch = PacketService.newBatch()) {
+                    for (NPC npc : npcs) {
+                        npc.getTrackerEntry().render(players, batch);
+                    }
+                } finally {
+                    this.rendering.set(false);
                 }
             });
         }, 1);
@@ -248,6 +275,8 @@ public class NPCPool implements Listener {
 
     protected void takeCareOf(@NotNull NPC npc) {
         this.npcMap.put(npc.getEntityId(), npc);
+        this.npcByUniqueId.put(npc.getGameProfile().getUUID(), npc);
+        this.refreshNPCs();
     }
 
     @Nullable
@@ -255,31 +284,63 @@ public class NPCPool implements Listener {
         return this.npcMap.get(entityId);
     }
 
+    @Nullable
+    public NPC getNPC(UUID uuid) {
+        return this.npcByUniqueId.get(uuid);
+    }
+
     public void removeNPC(int entityId) {
-        NPC npc = this.getNPC(entityId);
+        NPC npc = this.npcMap.remove(entityId);
 
         if (npc != null) {
-            this.npcMap.remove(entityId);
-            npc.getSeeingPlayers().forEach(npc::hide);
+            this.npcByUniqueId.remove(npc.getGameProfile().getUUID());
+            this.refreshNPCs();
+            npc.getTrackerEntry().untrack();
         }
     }
 
+    private synchronized void refreshNPCs() {
+        this.npcs = this.npcMap.values().toArray(new NPC[0]);
+    }
+
+    public void addViewer(Player player, NPC npc) {
+        this.viewedNPCs.computeIfAbsent(player.getUniqueId(), ignored -> ConcurrentHashMap.newKeySet()).add(npc);
+    }
+
+    public void removeViewer(Player player, NPC npc) {
+        this.viewedNPCs.computeIfPresent(player.getUniqueId(), (uuid, npcs) -> {
+            npcs.remove(npc);
+            return npcs.isEmpty() ? null : npcs;
+        });
+    }
+
+    /**
+     * @return the NPCs currently shown to the player
+     */
+    public Set<NPC> getViewedNPCs(Player player) {
+        return this.viewedNPCs.getOrDefault(player.getUniqueId(), Collections.emptySet());
+    }
+
     @EventHandler
     public void handleQuit(PlayerQuitEvent event) {
         Player player = event.getPlayer();
 
-        this.npcMap.values().stream()
-                .filter(npc -> npc.isShownFor(player))
-                .forEach(npc -> npc.untrack(player));
+        Set<NPC> npcs = this.viewedNPCs.remove(player.getUniqueId());
+        if (npcs != null) {
+            npcs.forEach(npc -> npc.untrack(player));
+        }
     }
 
     @EventHandler
     public void handleSneak(PlayerToggleSneakEvent event) {
         Player player = event.getPlayer();
+        Location location = player.getLocation();
 
-        this.npcMap.values().stream()
-                .filter(npc -> npc.isImitatePlayer() && npc.isShownFor(player) && npc.getLocation().distanceSquared(player.getLocation()) <= this.actionDistance)
-                .forEach(npc -> npc.metadata().queue(MetadataModifier.EntityMetadata.SNEAKING, event.isSneaking()).send(player));
+        for (NPC npc : this.getViewedNPCs(player)) {
+            if (npc.isImitatePlayer() && npc.getLocation().distanceSquared(location) <= this.actionDistance) {
+                npc.metadata().queue(MetadataModifier.EntityMetadata.SNEAKING, event.isSneaking()).send(player);
+            }
+        }
     }
 
     @EventHandler
@@ -287,9 +348,13 @@ public class NPCPool implements Listener {
         Player player = event.getPlayer();
 
         if (event.getAction() == Action.LEFT_CLICK_AIR || event.getAction() == Action.LEFT_CLICK_BLOCK) {
-            this.npcMap.values().stream()
-                    .filter(npc -> npc.isImitatePlayer() && npc.isShownFor(player) && npc.getLocation().distanceSquared(player.getLocation()) <= this.actionDistance)
-                    .forEach(npc -> npc.animation().queue(AnimationModifier.EntityAnimation.SWING_MAIN_ARM).send(player));
+            Location location = player.getLocation();
+
+            for (NPC npc : this.getViewedNPCs(player)) {
+                if (npc.isImitatePlayer() && npc.getLocation().distanceSquared(location) <= this.actionDistance) {
+                    npc.animation().queue(AnimationModifier.EntityAnimation.SWING_MAIN_ARM).send(player);
+                }
+            }
         }
     }
 
@@ -31,6 +31,7 @@ import com.comphenix.protocol.events.PacketContainer;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.imanity.framework.bukkit.npc.NPC;
+import org.imanity.framework.bukkit.packet.PacketBatch;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.List;
@@ -103,4 +104,20 @@ public class NPCModifier {
         this.packetContainers.clear();
     }
 
+    /**
+     * Queues the modifications for certain players into a batch, they're sent once the batch is flushed
+     *
+     * @param batch the batch to queue the packets into
+     * @param targetPlayers the players which should see the modification
+     */
+    public void send(PacketBatch batch, Player... targetPlayers) {
+        for (Player targetPlayer : targetPlayers) {
+            for (PacketContainer packetContainer : this.packetContainers) {
+                batch.send(targetPlayer, packetContainer.getHandle());
+            }
+        }
+
+        this.packetContainers.clear();
+    }
+
 }
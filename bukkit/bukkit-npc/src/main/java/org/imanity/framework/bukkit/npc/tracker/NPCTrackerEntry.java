@@ -25,15 +25,12 @@
 package org.imanity.framework.bukkit.npc.tracker;
 
 import com.comphenix.protocol.PacketType;
-import com.comphenix.protocol.ProtocolLibrary;
 import com.comphenix.protocol.events.PacketContainer;
-import lombok.RequiredArgsConstructor;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
-import org.imanity.framework.bukkit.Imanity;
 import org.imanity.framework.bukkit.npc.NPC;
+import org.imanity.framework.bukkit.packet.PacketBatch;
 
-import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -55,6 +52,19 @@ public class NPCTrackerEntry {
 
     private boolean lastOnGround;
 
+    /*
+     * The NPC's position as of the last capture, taken on the main thread so
+     * the render thread never reads the NPC's mutable location.
+     */
+    private double x;
+    private double z;
+    private int dataX;
+    private int dataY;
+    private int dataZ;
+    private int dataYaw;
+    private int dataPitch;
+    private boolean onGround;
+
     private final Map<Player, Boolean> trackedPlayers = new ConcurrentHashMap<>();
     private final List<Player> toRemove = new ArrayList<>();
 
@@ -69,6 +79,23 @@ public class NPCTrackerEntry {
         this.lastPitch = (int) Math.floor(location.getPitch() * 256.0D / 360.0F);
         this.lastHeadRotation = (int) Math.floor(location.getYaw() * 256.0D / 360.0F);
         this.lastOnGround = npc.isOnGround();
+        this.capture();
+    }
+
+    /**
+     * Remember where the NPC is for the next render, has to be called from the
+     * main thread before the render is handed to another thread.
+     */
+    public void capture() {
+        Location location = this.npc.getLocation();
+        this.x = location.getX();
+        this.z = location.getZ();
+        this.dataX = (int) Math.floor(location.getX() * 32.0D);
+        this.dataY = (int) Math.floor(location.getY() * 32.0D);
+        this.dataZ = (int) Math.floor(location.getZ() * 32.0D);
+        this.dataYaw = (int) Math.floor(location.getYaw() * 256.0F / 360.0F);
+        this.dataPitch = (int) Math.floor(location.getPitch() * 256.0F / 360.0F);
+        this.onGround = this.npc.isOnGround();
     }
 
     public Set<Player> getTrackedPlayers() {
@@ -79,20 +106,24 @@ public class NPCTrackerEntry {
         return this.trackedPlayers.containsKey(player);
     }
 
-    public void render() {
-        this.removeFarPlayers();
-        this.addNearbyPlayers();
+    /**
+     * Spawn, despawn and move the NPC for the players around it, every packet
+     * is queued into the batch so each viewer gets a single flush per render.
+     */
+    public void render(PlayerGrid players, PacketBatch batch) {
+        this.removeFarPlayers(players, batch);
+        this.addNearbyPlayers(players, batch);
 
         ++this.teleportDelay;
 
         if (this.renderTick % 2 == 0) {
 
-            Location location = this.npc.getLocation();
-            int dataX = (int) Math.floor(location.getX() * 32.0D);
-            int dataY = (int) Math.floor(location.getY() * 32.0D);
-            int dataZ = (int) Math.floor(location.getZ() * 32.0D);
-            int dataYaw = (int) Math.floor(location.getYaw() * 256.0F / 360.0F);
-            int dataPitch = (int) Math.floor(location.getPitch() * 256.0F / 360.0F);
+            int dataX = this.dataX;
+            int dataY = this.dataY;
+            int dataZ = this.dataZ;
+            int dataYaw = this.dataYaw;
+            int dataPitch = this.dataPitch;
+            boolean onGround = this.onGround;
 
 
             int diffX = dataX - this.lastX;
@@ -116,7 +147,7 @@ public class NPCTrackerEntry {
                     this.lastPitch = dataPitch;
                 }
 
-                if (diffX >= -128 && diffX < 128 && diffY >= -128 && diffY < 128 && diffZ >= -128 && diffZ < 128 && this.teleportDelay <= 400 && this.lastOnGround == this.npc.isOnGround()) {
+                if (diffX >= -128 && diffX < 128 && diffY >= -128 && diffY < 128 && diffZ >= -128 && diffZ < 128 && this.teleportDelay <= 400 && this.lastOnGround == onGround) {
 
                     if (!shouldUpdateLocation || !shouldUpdateRotation) {
 
@@ -128,7 +159,7 @@ public class NPCTrackerEntry {
                                     .write(1, (byte) diffY)
                                     .write(2, (byte) diffZ);
                             packetContainer.getBooleans()
-                                    .write(0, this.npc.isOnGround());
+                                    .write(0, onGround);
                         } else if (shouldUpdateRotation) {
                             packetContainer = new PacketContainer(PacketType.Play.Server.ENTITY_LOOK);
                             packetContainer.getIntegers().write(0, this.npc.getEntityId());
@@ -136,7 +167,7 @@ public class NPCTrackerEntry {
                                     .write(3, (byte) dataYaw)
                                     .write(4, (byte) dataPitch);
                             packetContainer.getBooleans()
-                                    .write(0, this.npc.isOnGround())
+                                    .write(0, onGround)
                                     .write(1, true);
                         }
 
@@ -150,13 +181,13 @@ public class NPCTrackerEntry {
                                 .write(3, (byte) dataYaw)
                                 .write(4, (byte) dataPitch);
                         packetContainer.getBooleans()
-                                .write(0, this.npc.isOnGround())
+                                .write(0, onGround)
                                 .write(1, true);
                     }
 
                 } else {
 
-                    this.lastOnGround = this.npc.isOnGround();
+                    this.lastOnGround = onGround;
                     this.teleportDelay = 0;
 
                     packetContainer = new PacketContainer(PacketType.Play.Server.ENTITY_TELEPORT);
@@ -171,7 +202,7 @@ public class NPCTrackerEntry {
                             .write(1, (byte) dataPitch);
 
                     packetContainer.getBooleans()
-                            .write(0, this.npc.isOnGround());
+                            .write(0, onGround);
 
                 }
             }
@@ -179,7 +210,7 @@ public class NPCTrackerEntry {
             if (packetContainer != null) {
 
                 if (packetContainer.getType() == PacketType.Play.Server.ENTITY_TELEPORT) {
-                    this.broadcast(packetContainer);
+                    this.broadcast(packetContainer, batch);
                 } else {
                     PacketContainer teleportPacket = null;
 
@@ -199,12 +230,12 @@ public class NPCTrackerEntry {
                                         .write(1, (byte) dataPitch);
 
                                 teleportPacket.getBooleans()
-                                        .write(0, this.npc.isOnGround());
+                                        .write(0, onGround);
                             }
 
-                            this.sendPacket(viewer.getKey(), teleportPacket);
+                            batch.send(viewer.getKey(), teleportPacket.getHandle());
                         } else {
-                            this.sendPacket(viewer.getKey(), packetContainer);
+                            batch.send(viewer.getKey(), packetContainer.getHandle());
                         }
                     }
 
@@ -212,12 +243,12 @@ public class NPCTrackerEntry {
 
             }
 
-            int headRotation = (int) Math.floor(this.npc.getLocation().getYaw() * 256.0F / 360.0F);
+            int headRotation = dataYaw;
             if (Math.abs(headRotation - this.lastHeadRotation) >= 4) {
                 PacketContainer headPacket = new PacketContainer(PacketType.Play.Server.ENTITY_HEAD_ROTATION);
                 headPacket.getIntegers().write(0, this.npc.getEntityId());
                 headPacket.getBytes().write(0, (byte) headRotation);
-                this.broadcast(headPacket);
+                this.broadcast(headPacket, batch);
 
                 this.lastHeadRotation = headRotation;
             }
@@ -227,32 +258,21 @@ public class NPCTrackerEntry {
         ++this.renderTick;
     }
 
-    private void sendPacket(Player player, PacketContainer packet) {
-        try {
-            ProtocolLibrary.getProtocolManager().sendServerPacket(player, packet);
-        } catch (InvocationTargetException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
-    private void broadcast(PacketContainer packetContainer) {
+    private void broadcast(PacketContainer packetContainer, PacketBatch batch) {
+        Object packet = packetContainer.getHandle();
         for (Player player : this.trackedPlayers.keySet()) {
-            try {
-                ProtocolLibrary.getProtocolManager().sendServerPacket(player, packetContainer);
-            } catch (InvocationTargetException e) {
-                throw new RuntimeException(e);
-            }
+            batch.send(player, packet);
         }
     }
 
-    public void addNearbyPlayers() {
-
-        Imanity.IMPLEMENTATION.getPlayerRadius(this.npc.getLocation(), this.npc.getPool().getSpawnDistance()).forEach(player -> {
+    public void addNearbyPlayers(PlayerGrid players, PacketBatch batch) {
 
-            if (!this.trackedPlayers.containsKey(player)) {
-                this.trackedPlayers.put(player, true);
+        players.forEachNear(this.x, this.z, this.npc.getPool().getSpawnDistance(), position -> {
+            Player player = position.getPlayer();
 
-                this.npc.show(player);
+            if (this.trackedPlayers.putIfAbsent(player, true) == null) {
+                this.npc.getPool().addViewer(player, this.npc);
+                this.npc.show(player, batch);
             }
 
         });
@@ -262,21 +282,32 @@ public class NPCTrackerEntry {
     public void untrack(Player player) {
         this.npc.hide(player);
 
-        this.trackedPlayers.remove(player);
+        this.forget(player);
     }
 
-    public void removeFarPlayers() {
+    private void untrack(Player player, PacketBatch batch) {
+        this.npc.hide(player, batch);
+
+        this.forget(player);
+    }
+
+    private void forget(Player player) {
+        if (this.trackedPlayers.remove(player) != null) {
+            this.npc.getPool().removeViewer(player, this.npc);
+        }
+    }
+
+    public void removeFarPlayers(PlayerGrid players, PacketBatch batch) {
         for (Player player : this.trackedPlayers.keySet()) {
-            double x = player.getLocation().getX() - this.npc.getLocation().getX();
-            double z = player.getLocation().getZ() - this.npc.getLocation().getZ();
+            PlayerGrid.Position position = players.get(player);
 
-            if (Math.abs(x * x) > this.npc.getPool().getSpawnDistance() || Math.abs(z * z) > this.npc.getPool().getSpawnDistance()) {
+            if (position == null || position.distanceSquared(this.x, this.z) > this.npc.getPool().getSpawnDistance()) {
                 toRemove.add(player);
             }
         }
 
         for (Player player : this.toRemove) {
-            this.untrack(player);
+            this.untrack(player, batch);
         }
 
         this.toRemove.clear();
@@ -284,8 +315,7 @@ public class NPCTrackerEntry {
 
     public void untrack() {
         for (Player player : this.trackedPlayers.keySet()) {
-            this.npc.hide(player);
-            this.trackedPlayers.remove(player);
+            this.untrack(player);
         }
     }
 
@@ -0,0 +1,117 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Imanity
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package org.imanity.framework.bukkit.npc.tracker;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * The positions of the players of a world at one tick, bucketed per chunk.
+ *
+ * It is captured on the main thread and only read afterwards, which makes it
+ * safe to use from the render threads instead of asking Bukkit for locations.
+ */
+public final class PlayerGrid {
+
+    private final Map<Long, List<Position>> chunks = new HashMap<>();
+    private final Map<UUID, Position> positions = new HashMap<>();
+
+    private PlayerGrid() {
+    }
+
+    public static PlayerGrid capture(World world) {
+        PlayerGrid grid = new PlayerGrid();
+
+        for (Player player : world.getPlayers()) {
+            Location location = player.getLocation();
+            Position position = new Position(player, location.getX(), location.getY(), location.getZ());
+
+            grid.positions.put(player.getUniqueId(), position);
+            grid.chunks.computeIfAbsent(PlayerGrid.chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4), key -> new ArrayList<>()).add(position);
+        }
+
+        return grid;
+    }
+
+    /**
+     * @return the position of the player, or null if the player wasn't in the world
+     */
+    public Position get(Player player) {
+        return this.positions.get(player.getUniqueId());
+    }
+
+    /**
+     * Visit the players within the horizontal distance, only the chunks that
+     * can hold such players are looked at.
+     */
+    public void forEachNear(double x, double z, double distanceSquared, Consumer<Position> consumer) {
+        int chunkRadius = ((int) Math.ceil(Math.sqrt(distanceSquared)) + 15) >> 4;
+        int chunkX = ((int) Math.floor(x)) >> 4, chunkZ = ((int) Math.floor(z)) >> 4;
+
+        for (int offsetX = -chunkRadius; offsetX <= chunkRadius; offsetX++) {
+            for (int offsetZ = -chunkRadius; offsetZ <= chunkRadius; offsetZ++) {
+                List<Position> positions = this.chunks.get(PlayerGrid.chunkKey(chunkX + offsetX, chunkZ + offsetZ));
+                if (positions == null) {
+                    continue;
+                }
+
+                for (Position position : positions) {
+                    if (position.distanceSquared(x, z) <= distanceSquared) {
+                        consumer.accept(position);
+                    }
+                }
+            }
+        }
+    }
+
+    private static long chunkKey(int x, int z) {
+        return ((long) x << 32) + z - Integer.MIN_VALUE;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static final class Position {
+
+        private final Player player;
+        private final double x;
+        private final double y;
+        private final double z;
+
+        public double distanceSquared(double x, double z) {
+            double distanceX = this.x - x;
+            double distanceZ = this.z - z;
+            return distanceX * distanceX + distanceZ * distanceZ;
+        }
+
+    }
+
+}
@@ -47,6 +47,7 @@ import org.imanity.framework.locale.player.LocaleData;
 import org.imanity.framework.redis.server.ServerHandler;
 import org.imanity.framework.redis.server.enums.ServerState;
 import org.imanity.framework.task.ITaskScheduler;
+import org.imanity.framework.util.RV;
 import org.imanity.framework.util.terminable.Terminable;
 import org.mongojack.internal.MongoJackModule;
 
@@ -188,17 +189,22 @@ public final class ImanityCommon {
     }
 
     public static String translate(UUID uuid, String key) {
+        return ImanityCommon.getLocale(uuid).get(key);
+    }
+
+    public static StringBuilder render(UUID uuid, int handle, StringBuilder builder, RV... replaceValues) {
+        return ImanityCommon.getLocale(uuid).render(builder, handle, replaceValues);
+    }
+
+    public static Locale getLocale(UUID uuid) {
         if (!ImanityCommon.CORE_CONFIG.USE_LOCALE) {
             throw new OptionNotEnabledException("use_locale", "org.imanity.framework.config.yml");
         }
         LocaleData localeData = LOCALE_HANDLER.find(uuid);
-        Locale locale;
         if (localeData == null || localeData.getLocale() == null) {
-            locale = ImanityCommon.LOCALE_HANDLER.getDefaultLocale();
-        } else {
-            locale = localeData.getLocale();
+            return ImanityCommon.LOCALE_HANDLER.getDefaultLocale();
         }
-        return locale.get(key);
+        return localeData.getLocale();
     }
 
     public static void addTerminable(Terminable terminable) {
@@ -24,20 +24,57 @@
 
 package org.imanity.framework.locale;
 
-import it.unimi.dsi.fastutil.chars.Char2ObjectOpenHashMap;
-import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import lombok.Getter;
 import org.imanity.framework.Autowired;
+import org.imanity.framework.util.RV;
 import org.imanity.framework.util.Utility;
 
+import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Locale {
 
     @Autowired
     public static LocaleHandler LOCALE_HANDLER;
 
-    private final Char2ObjectOpenHashMap<Map<String, String>> translateEntries = new Char2ObjectOpenHashMap<>();
+    /**
+     * Handles are shared by every locale, so a handle resolved once can be used with any of them
+     */
+    private static final Map<String, Integer> HANDLES = new ConcurrentHashMap<>();
+    private static volatile String[] KEYS = new String[0];
+
+    /**
+     * Resolve the integer handle of a translation key, resolve it once and keep it to skip the key lookup
+     *
+     * @param key the translation key
+     * @return the handle
+     */
+    public static int handle(String key) {
+        Integer handle = HANDLES.get(key);
+        if (handle != null) {
+            return handle;
+        }
+
+        synchronized (HANDLES) {
+            handle = HANDLES.get(key);
+            if (handle == null) {
+                handle = KEYS.length;
+
+                String[] keys = Arrays.copyOf(KEYS, handle + 1);
+                keys[handle] = key;
+                KEYS = keys;
+                HANDLES.put(key, handle);
+            }
+            return handle;
+        }
+    }
+
+    public static String key(int handle) {
+        return KEYS[handle];
+    }
+
+    private volatile LocaleTemplate[] templates = new LocaleTemplate[0];
 
     @Getter
     private final String name;
@@ -46,18 +83,18 @@ public class Locale {
         this.name = name;
     }
 
-    public void registerEntry(String key, String value) {
-        char c = this.getEntry(key);
+    public synchronized void registerEntry(String key, String value) {
+        int handle = Locale.handle(key);
 
-        Map<String, String> subEntries;
-        if (this.translateEntries.containsKey(c)) {
-            subEntries = this.translateEntries.get(c);
+        LocaleTemplate[] templates = this.templates;
+        if (handle >= templates.length) {
+            templates = Arrays.copyOf(templates, Math.max(handle + 1, templates.length * 2));
         } else {
-            subEntries = new Object2ObjectOpenHashMap<>();
-            this.translateEntries.put(c, subEntries);
+            templates = templates.clone();
         }
+        templates[handle] = new LocaleTemplate(value);
 
-        subEntries.put(key, value);
+        this.templates = templates;
     }
 
     public void registerEntry(String key, Iterable<String> strings) {
@@ -68,35 +105,70 @@ public class Locale {
         this.registerEntry(key, Utility.joinToString(strings, "\n"));
     }
 
-    public void unregisterEntry(String key) {
-        char c = this.getEntry(key);
+    public synchronized void unregisterEntry(String key) {
+        Integer handle = HANDLES.get(key);
 
-        if (translateEntries.containsKey(c)) {
-            Map<String, String> subEntries = this.translateEntries.get(c);
+        if (handle != null && handle < this.templates.length) {
+            LocaleTemplate[] templates = this.templates.clone();
+            templates[handle] = null;
 
-            subEntries.remove(key);
-
-            if (subEntries.isEmpty()) {
-                translateEntries.remove(c);
-            }
+            this.templates = templates;
         }
     }
 
     public String get(String key) {
-        char c = this.getEntry(key);
+        Integer handle = HANDLES.get(key);
+        if (handle == null) {
+            return key;
+        }
 
-        if (this.translateEntries.containsKey(c)) {
-            Map<String, String> subEntries = this.translateEntries.get(c);
+        LocaleTemplate template = this.template(handle);
+        return template != null ? template.getRaw() : key;
+    }
 
-            if (subEntries.containsKey(key)) {
-                return subEntries.get(key);
-            }
-            return key;
+    public String get(int handle) {
+        LocaleTemplate template = this.template(handle);
+        return template != null ? template.getRaw() : Locale.key(handle);
+    }
+
+    /**
+     * @param key the translation key
+     * @return the pre-parsed translation, or null if this locale doesn't have it
+     */
+    public LocaleTemplate template(String key) {
+        Integer handle = HANDLES.get(key);
+        return handle != null ? this.template(handle) : null;
+    }
+
+    /**
+     * @param handle the handle from {@link #handle(String)}
+     * @return the pre-parsed translation, or null if this locale doesn't have it
+     */
+    public LocaleTemplate template(int handle) {
+        LocaleTemplate[] templates = this.templates;
+        return handle < templates.length ? templates[handle] : null;
+    }
+
+    /**
+     * Append the translation into the builder without creating intermediate strings
+     *
+     * The key is appended if this locale doesn't have the translation.
+     *
+     * @param builder the builder to append into
+     * @param handle the handle from {@link #handle(String)}
+     * @param values the replace values for the placeholders
+     * @return the builder
+     */
+    public StringBuilder render(StringBuilder builder, int handle, RV... values) {
+        LocaleTemplate template = this.template(handle);
+        if (template == null) {
+            return builder.append(Locale.key(handle));
         }
 
-        return key;
+        return template.render(builder, values);
     }
 
+    @Deprecated
     public char getEntry(String key) {
         return key.charAt(0);
     }
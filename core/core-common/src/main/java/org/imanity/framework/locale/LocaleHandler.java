@@ -29,6 +29,7 @@ import org.apache.commons.io.IOUtils;
 import org.imanity.framework.Autowired;
 import org.imanity.framework.ImanityCommon;
 import org.imanity.framework.PostInitialize;
+import org.imanity.framework.PreDestroy;
 import org.imanity.framework.Service;
 import org.imanity.framework.locale.player.LocaleData;
 import org.imanity.framework.metadata.CommonMetadataRegistries;
@@ -40,16 +41,16 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service(name = "locale")
 public class LocaleHandler {
 
     private static final MetadataKey<LocaleData> METADATA = MetadataKey.create("framework:locale", LocaleData.class);
-    private static final Object LOCK = new Object();
+    private static final long SAVE_INTERVAL_TICKS = 5 * 20L;
 
     @Autowired
     private LocaleRepository localeRepository;
@@ -59,12 +60,39 @@ public class LocaleHandler {
     private Locale defaultLocale;
     private Yaml yaml;
 
+    private Map<UUID, CompletableFuture<LocaleData>> loading;
+    private Map<UUID, LocaleData> pendingSaves;
+    private int saveTaskId = -1;
+
     @PostInitialize
     public void init() {
         this.locales = new HashMap<>();
         this.defaultLocale = this.getOrRegister(ImanityCommon.CORE_CONFIG.DEFAULT_LOCALE);
 
         this.yaml = new Yaml();
+
+        this.loading = new ConcurrentHashMap<>();
+        this.pendingSaves = new ConcurrentHashMap<>();
+        if (ImanityCommon.CORE_CONFIG.USE_LOCALE) {
+            this.saveTaskId = ImanityCommon.TASK_SCHEDULER.runAsyncRepeated(() -> {
+                try {
+                    this.flushSaves();
+                } catch (Throwable throwable) {
+                    // the failed batch stays queued and is retried by the next run
+                    throwable.printStackTrace();
+                }
+            }, SAVE_INTERVAL_TICKS, SAVE_INTERVAL_TICKS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (this.saveTaskId != -1) {
+            ImanityCommon.TASK_SCHEDULER.cancel(this.saveTaskId);
+            this.saveTaskId = -1;
+        }
+
+        this.flushSaves();
     }
 
     public Locale getOrRegister(String name) {
@@ -131,24 +159,98 @@ public class LocaleHandler {
         return CommonMetadataRegistries.provide(uuid).getOrNull(METADATA);
     }
 
+    /**
+     * Load the locale data of the player and store it into the player metadata
+     *
+     * Concurrent lookups for the same player share a single database query, lookups for different players don't block each other.
+     *
+     * @param uuid the uuid of the player
+     * @return the locale data
+     */
     public LocaleData lookup(UUID uuid) {
-        synchronized (LOCK) {
-            LocaleData localeData = this.localeRepository.find(uuid);
+        CompletableFuture<LocaleData> future = new CompletableFuture<>();
+        CompletableFuture<LocaleData> existing = this.loading.putIfAbsent(uuid, future);
+
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException ex) {
+                throw new RuntimeException("Something wrong while loading locale data for " + uuid, ex.getCause());
+            }
+        }
+
+        try {
+            // the data hasn't been saved yet, reuse it so the pending save doesn't overwrite newer changes,
+            // it stays queued and is written by the next batch
+            LocaleData localeData = this.pendingSaves.get(uuid);
+            if (localeData == null) {
+                localeData = this.localeRepository.find(uuid);
+                // the repository sets the fields through the setters while loading
+                localeData.markSaved();
+            }
 
             CommonMetadataRegistries.provide(uuid).put(METADATA, localeData);
+            future.complete(localeData);
             return localeData;
+        } catch (Throwable throwable) {
+            future.completeExceptionally(throwable);
+            throw throwable;
+        } finally {
+            this.loading.remove(uuid, future);
         }
     }
 
+    public CompletableFuture<LocaleData> lookupAsync(UUID uuid) {
+        CompletableFuture<LocaleData> existing = this.loading.get(uuid);
+        if (existing != null) {
+            return existing;
+        }
+
+        return CompletableFuture.supplyAsync(() -> this.lookup(uuid), ImanityCommon.TASK_SCHEDULER::runAsync);
+    }
+
+    /**
+     * Remove the locale data from the player metadata and queue it for the next batched save if it has been changed
+     *
+     * The cached repository copy is evicted either way, so the cache doesn't keep every player who joined
+     * and a rejoin reads what another server may have saved since.
+     *
+     * @param localeData the locale data
+     */
     public void saveAndDelete(LocaleData localeData) {
         if (localeData == null) {
             return;
         }
 
-        synchronized (LOCK) {
-            CommonMetadataRegistries.provide(localeData.getUuid()).remove(METADATA);
+        CommonMetadataRegistries.provide(localeData.getUuid()).remove(METADATA);
+        if (localeData.isDirty()) {
+            // a rejoin before the batch is written picks up this data instead of the stored one
+            this.pendingSaves.put(localeData.getUuid(), localeData);
+        }
+        this.localeRepository.evict(localeData.getUuid());
+    }
 
-            this.localeRepository.save(localeData);
+    /**
+     * Write every queued locale data in one batch, a failed batch stays queued and the failure is rethrown
+     */
+    public void flushSaves() {
+        if (this.pendingSaves.isEmpty()) {
+            return;
+        }
+
+        // kept queued until stored so a rejoin during the save picks up this data instead of the old one
+        List<LocaleData> batch = new ArrayList<>(this.pendingSaves.values());
+        for (LocaleData localeData : batch) {
+            localeData.markSaved();
+        }
+
+        this.localeRepository.saveAll(batch);
+
+        for (LocaleData localeData : batch) {
+            // changed again while it was being saved, it goes with the next batch
+            if (!localeData.isDirty()) {
+                this.pendingSaves.remove(localeData.getUuid(), localeData);
+            }
         }
     }
 
@@ -60,6 +60,20 @@ public class LocaleRepository extends ConfigurableRepository<LocaleData, UUID> {
         return super.save(localeData);
     }
 
+    @Override
+    public <S extends LocaleData> Iterable<S> saveAll(Iterable<S> pojoIterable) {
+        Iterable<S> result = super.saveAll(pojoIterable);
+        for (S localeData : pojoIterable) {
+            this.evict(localeData.getUuid());
+        }
+        return result;
+    }
+
+    @CacheEvict("'locale-' + #args[0]")
+    public void evict(UUID uuid) {
+
+    }
+
     @PostDestroy
     @Cacheable.ClearAfter
     public void stop() {
@@ -0,0 +1,192 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Imanity
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.imanity.framework.locale;
+
+import lombok.Getter;
+import org.imanity.framework.util.CC;
+import org.imanity.framework.util.RV;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A translation pre-parsed into literal and placeholder segments
+ *
+ * Placeholders written as {@code <name>} are matched against {@link RV#getTarget()} without searching the text,
+ * any other target (like {@code %player%} or {@code {0}}) is searched and replaced in the rendered text.
+ */
+public final class LocaleTemplate {
+
+    @Getter
+    private final String raw;
+
+    /**
+     * literals[i] is followed by placeholders[i], the last literal has no placeholder after it
+     */
+    private final String[] literals;
+    private final String[] placeholders;
+
+    private volatile LocaleTemplate colored;
+
+    public LocaleTemplate(String raw) {
+        this.raw = raw;
+
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+
+        int start = 0;
+        int open = raw.indexOf('<');
+        while (open != -1) {
+            int close = this.findClose(raw, open);
+            if (close == -1) {
+                break;
+            }
+
+            literals.add(raw.substring(start, open));
+            placeholders.add(raw.substring(open, close + 1));
+            start = close + 1;
+            open = raw.indexOf('<', start);
+        }
+        literals.add(raw.substring(start));
+
+        this.literals = literals.toArray(new String[0]);
+        this.placeholders = placeholders.toArray(new String[0]);
+    }
+
+    private int findClose(String raw, int open) {
+        for (int i = open + 1; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c == '>') {
+                return i > open + 1 ? i : -1;
+            }
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '-' && c != '.') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private LocaleTemplate(String raw, String[] literals, String[] placeholders) {
+        this.raw = raw;
+        this.literals = literals;
+        this.placeholders = placeholders;
+    }
+
+    public boolean hasPlaceholders() {
+        return this.placeholders.length > 0;
+    }
+
+    /**
+     * The same template with its color codes translated by {@link CC#translate(String)}, the replace values are left as is
+     *
+     * Placeholders never contain color codes, so translating the literals one by one is the same as translating the whole text.
+     *
+     * @return the colored template, created once
+     */
+    public LocaleTemplate colored() {
+        LocaleTemplate colored = this.colored;
+        if (colored == null) {
+            String[] literals = new String[this.literals.length];
+            for (int i = 0; i < literals.length; i++) {
+                literals[i] = CC.translate(this.literals[i]);
+            }
+
+            colored = new LocaleTemplate(CC.translate(this.raw), literals, this.placeholders);
+            colored.colored = colored;
+            this.colored = colored;
+        }
+        return colored;
+    }
+
+    /**
+     * Append the translation into the builder, replacing the placeholders by the matching values
+     *
+     * Placeholders without a matching value are appended as is.
+     *
+     * @param builder the builder to append into
+     * @param values the replace values
+     * @return the builder
+     */
+    public StringBuilder render(StringBuilder builder, RV... values) {
+        final int start = builder.length();
+
+        for (int i = 0; i < this.placeholders.length; i++) {
+            builder.append(this.literals[i]);
+
+            String placeholder = this.placeholders[i];
+            String replacement = placeholder;
+            for (RV value : values) {
+                if (placeholder.equals(value.getTarget())) {
+                    replacement = value.getReplacement();
+                    break;
+                }
+            }
+            builder.append(replacement);
+        }
+        builder.append(this.literals[this.literals.length - 1]);
+
+        for (RV value : values) {
+            if (!this.isPlaceholder(value.getTarget())) {
+                LocaleTemplate.replace(builder, start, value.getTarget(), value.getReplacement());
+            }
+        }
+
+        return builder;
+    }
+
+    public String render(RV... values) {
+        if (values.length == 0) {
+            return this.raw;
+        }
+        return this.render(new StringBuilder(this.raw.length() + 16), values).toString();
+    }
+
+    private boolean isPlaceholder(String target) {
+        for (String placeholder : this.placeholders) {
+            if (placeholder.equals(target)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void replace(StringBuilder builder, int from, String target, String replacement) {
+        if (target == null || target.isEmpty() || replacement == null) {
+            return;
+        }
+
+        int index = builder.indexOf(target, from);
+        while (index != -1) {
+            builder.replace(index, index + target.length(), replacement);
+            index = builder.indexOf(target, index + replacement.length());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return this.raw;
+    }
+
+}
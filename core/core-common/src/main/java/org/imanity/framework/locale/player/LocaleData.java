@@ -24,7 +24,9 @@
 
 package org.imanity.framework.locale.player;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -51,9 +53,30 @@ public class LocaleData {
     @JsonProperty
     private Locale locale;
 
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient boolean dirty;
+
     public LocaleData(UUID uuid) {
         this.uuid = uuid;
         this.locale = ImanityCommon.LOCALE_HANDLER.getDefaultLocale();
     }
 
+    public void setLocale(Locale locale) {
+        this.locale = locale;
+        this.dirty = true;
+    }
+
+    /**
+     * @return true if the locale has been changed since the data was loaded or last saved
+     */
+    public boolean isDirty() {
+        return this.dirty;
+    }
+
+    public void markSaved() {
+        this.dirty = false;
+    }
+
 }
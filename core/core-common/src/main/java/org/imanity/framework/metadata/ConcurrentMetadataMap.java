@@ -0,0 +1,299 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Imanity
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.imanity.framework.metadata;
+
+import com.google.common.collect.ImmutableMap;
+
+import javax.annotation.Nonnull;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A {@link MetadataMap} backed by a {@link ConcurrentHashMap}.
+ *
+ * Lookups are a direct hash lookup by {@link MetadataKey} and never take a lock, {@link TransientValue}s are only
+ * expired when the key being read is stale, the remaining stale values are swept by {@link #cleanup()}.
+ */
+final class ConcurrentMetadataMap implements MetadataMap {
+
+    private final Map<MetadataKey<?>, Entry> map = new ConcurrentHashMap<>();
+
+    @Override
+    public <T> void put(@Nonnull MetadataKey<T> key, @Nonnull T value) {
+        internalPut(key, value);
+    }
+
+    @Override
+    public <T> void put(@Nonnull MetadataKey<T> key, @Nonnull TransientValue<T> value) {
+        internalPut(key, value);
+    }
+
+    private void internalPut(MetadataKey<?> key, Object value) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+
+        this.map.compute(key, (k, existing) -> {
+            if (existing != null) {
+                checkType(existing.key, key);
+            }
+            return new Entry(key, value);
+        });
+    }
+
+    @Override
+    public <T> void forcePut(@Nonnull MetadataKey<T> key, @Nonnull T value) {
+        internalForcePut(key, value);
+    }
+
+    @Override
+    public <T> void forcePut(@Nonnull MetadataKey<T> key, @Nonnull TransientValue<T> value) {
+        internalForcePut(key, value);
+    }
+
+    private void internalForcePut(MetadataKey<?> key, Object value) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+
+        this.map.put(key, new Entry(key, value));
+    }
+
+    @Override
+    public <T> boolean putIfAbsent(@Nonnull MetadataKey<T> key, @Nonnull T value) {
+        return internalPutIfAbsent(key, value);
+    }
+
+    @Override
+    public <T> boolean putIfAbsent(@Nonnull MetadataKey<T> key, @Nonnull TransientValue<T> value) {
+        return internalPutIfAbsent(key, value);
+    }
+
+    private boolean internalPutIfAbsent(MetadataKey<?> key, Object value) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+
+        final Entry entry = new Entry(key, value);
+        while (true) {
+            Entry existing = this.map.putIfAbsent(key, entry);
+            if (existing == null) {
+                return true;
+            }
+
+            if (!existing.shouldExpire()) {
+                return false;
+            }
+
+            // the existing value has expired, try to replace it
+            if (this.map.replace(key, existing, entry)) {
+                return true;
+            }
+        }
+    }
+
+    @Nonnull
+    @Override
+    public <T> Optional<T> get(@Nonnull MetadataKey<T> key) {
+        Objects.requireNonNull(key, "key");
+
+        Entry entry = this.map.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+
+        Object unboxed = entry.unbox();
+
+        // if it has expired
+        if (unboxed == null) {
+            this.map.remove(key, entry);
+            return Optional.empty();
+        }
+
+        checkType(entry.key, key);
+        return Optional.of(key.cast(unboxed));
+    }
+
+    @Nonnull
+    @Override
+    public <T> boolean ifPresent(@Nonnull MetadataKey<T> key, @Nonnull Consumer<? super T> action) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(action, "action");
+        Optional<T> opt = get(key);
+        if (!opt.isPresent()) {
+            return false;
+        }
+
+        action.accept(opt.get());
+        return true;
+    }
+
+    @Override
+    public <T> T getOrNull(@Nonnull MetadataKey<T> key) {
+        Objects.requireNonNull(key, "key");
+        return get(key).orElse(null);
+    }
+
+    @Nonnull
+    @Override
+    public <T> T getOrDefault(@Nonnull MetadataKey<T> key, T def) {
+        Objects.requireNonNull(key, "key");
+        return get(key).orElse(def);
+    }
+
+    @Nonnull
+    @Override
+    public <T> T getOrPut(@Nonnull MetadataKey<T> key, @Nonnull Supplier<? extends T> def) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(def, "def");
+
+        return this.getOrCompute(key, () -> {
+            T t = def.get();
+            Objects.requireNonNull(t, "supplied def");
+
+            return t;
+        });
+    }
+
+    @Nonnull
+    @Override
+    public <T> T getOrPutExpiring(@Nonnull MetadataKey<T> key, @Nonnull Supplier<? extends TransientValue<T>> def) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(def, "def");
+
+        return this.getOrCompute(key, () -> {
+            TransientValue<T> t = def.get();
+            Objects.requireNonNull(t, "supplied def");
+
+            if (t.getOrNull() == null) {
+                throw new IllegalArgumentException("Transient value already expired: " + t);
+            }
+            return t;
+        });
+    }
+
+    private <T> T getOrCompute(MetadataKey<T> key, Supplier<Object> def) {
+        Entry created = null;
+        while (true) {
+            Entry entry = this.map.get(key);
+            if (entry != null) {
+                Object unboxed = entry.unbox();
+                if (unboxed != null) {
+                    checkType(entry.key, key);
+                    return key.cast(unboxed);
+                }
+            }
+
+            // the supplier runs outside of the map, so it can use this map itself
+            if (created == null) {
+                created = new Entry(key, def.get());
+            }
+
+            if (entry == null ? this.map.putIfAbsent(key, created) == null : this.map.replace(key, entry, created)) {
+                return key.cast(created.unbox());
+            }
+        }
+    }
+
+    @Override
+    public boolean has(@Nonnull MetadataKey<?> key) {
+        Objects.requireNonNull(key, "key");
+
+        Entry entry = this.map.get(key);
+        if (entry == null) {
+            return false;
+        }
+
+        if (entry.shouldExpire()) {
+            this.map.remove(key, entry);
+            return false;
+        }
+
+        return entry.key.getType().equals(key.getType());
+    }
+
+    @Override
+    public boolean remove(@Nonnull MetadataKey<?> key) {
+        Objects.requireNonNull(key, "key");
+        return this.map.remove(key) != null;
+    }
+
+    @Override
+    public void clear() {
+        this.map.clear();
+    }
+
+    @Nonnull
+    @Override
+    public ImmutableMap<MetadataKey<?>, Object> asMap() {
+        ImmutableMap.Builder<MetadataKey<?>, Object> builder = ImmutableMap.builder();
+        for (Entry entry : this.map.values()) {
+            builder.put(entry.key, entry.value);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        this.cleanup();
+        return this.map.isEmpty();
+    }
+
+    @Override
+    public void cleanup() {
+        this.map.values().removeIf(Entry::shouldExpire);
+    }
+
+    private static void checkType(MetadataKey<?> existing, MetadataKey<?> key) {
+        if (!existing.getType().equals(key.getType())) {
+            throw new ClassCastException("Cannot cast key with id " + key.getId() + " with type " + key.getType().getRawType() + " to existing stored type " + existing.getType().getRawType());
+        }
+    }
+
+    private static final class Entry {
+
+        private final MetadataKey<?> key;
+        private final Object value;
+
+        private Entry(MetadataKey<?> key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        private Object unbox() {
+            if (this.value instanceof TransientValue<?>) {
+                return ((TransientValue<?>) this.value).getOrNull();
+            }
+            return this.value;
+        }
+
+        private boolean shouldExpire() {
+            return this.value instanceof TransientValue<?> && ((TransientValue<?>) this.value).shouldExpire();
+        }
+
+    }
+
+}
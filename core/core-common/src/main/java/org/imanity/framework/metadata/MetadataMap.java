@@ -35,8 +35,9 @@ import java.util.function.Supplier;
 /**
  * A map which holds {@link MetadataKey}s, and maps them to persistent or transient (expiring / weak) values.
  *
- * Transient values will only be removed during map maintenance, which occurs during a housekeeping task running
- * every minute. Method signatures for the {@link #has(MetadataKey)} and equivalent remain accurate though.
+ * Transient values are removed when their key is read after they expired, the remaining ones are removed during map
+ * maintenance, which occurs during a housekeeping task running every minute. Method signatures for the
+ * {@link #has(MetadataKey)} and equivalent remain accurate though.
  *
  * @see TransientValue
  */
@@ -44,7 +45,7 @@ public interface MetadataMap {
 
     @Nonnull
     static MetadataMap create() {
-        return new MetadataMapImpl();
+        return new ConcurrentMetadataMap();
     }
 
     /**
@@ -0,0 +1,94 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Imanity
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package org.imanity.frameworktest;
+
+import org.imanity.framework.locale.Locale;
+import org.imanity.framework.locale.LocaleTemplate;
+import org.imanity.framework.util.RV;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LocaleTemplateTest {
+
+    @Test
+    public void testParse() {
+        assertFalse(new LocaleTemplate("no placeholders").hasPlaceholders());
+        assertFalse(new LocaleTemplate("a < b > c").hasPlaceholders());
+        assertFalse(new LocaleTemplate("<> and <unclosed").hasPlaceholders());
+        assertTrue(new LocaleTemplate("hello <player.name>").hasPlaceholders());
+    }
+
+    @Test
+    public void testRenderPlaceholders() {
+        LocaleTemplate template = new LocaleTemplate("<killer> killed <victim>, <killer> wins!");
+
+        assertEquals("A killed B, A wins!", template.render(RV.o("<killer>", "A"), RV.o("<victim>", "B")));
+        assertEquals("A killed <victim>, A wins!", template.render(RV.o("<killer>", "A")));
+        assertEquals("<killer> killed <victim>, <killer> wins!", template.render());
+    }
+
+    @Test
+    public void testRenderIntoBuilder() {
+        LocaleTemplate template = new LocaleTemplate("hello <name>");
+        StringBuilder builder = new StringBuilder("%name% says ");
+
+        template.render(builder, RV.o("<name>", "world"), RV.o("%name%", "x"));
+        assertEquals("%name% says hello world", builder.toString());
+    }
+
+    @Test
+    public void testRenderOtherTargets() {
+        LocaleTemplate template = new LocaleTemplate("%player% joined {0} <server>");
+
+        assertEquals("Steve joined lobby-1 (lobby)", template.render(
+                RV.o("%player%", "Steve"),
+                RV.o("{0}", "lobby-1"),
+                RV.o("<server>", "(lobby)")
+        ));
+        assertEquals("%player% joined {0} <server>", template.render(RV.o("", "ignored")));
+    }
+
+    @Test
+    public void testColored() {
+        LocaleTemplate template = new LocaleTemplate("&a<name> &7joined");
+
+        assertEquals("§a&cSteve §7joined", template.colored().render(RV.o("<name>", "&cSteve")));
+        assertSame(template.colored(), template.colored());
+    }
+
+    @Test
+    public void testMissingKey() {
+        Locale locale = new Locale("test") {};
+        locale.registerEntry("test.present", "hello <name>");
+
+        assertEquals("hello you", locale.render(new StringBuilder(), Locale.handle("test.present"), RV.o("<name>", "you")).toString());
+        assertEquals("test.missing", locale.render(new StringBuilder(), Locale.handle("test.missing")).toString());
+        assertEquals("test.missing", locale.get("test.missing"));
+        assertNull(locale.template("test.unknown"));
+    }
+
+}
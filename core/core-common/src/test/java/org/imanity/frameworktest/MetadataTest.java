@@ -23,43 +23,123 @@
  */
 
 package org.imanity.frameworktest;
-//
-//import org.imanity.framework.metadata.CommonMetadataRegistries;
-//import org.imanity.framework.metadata.MetadataKey;
-//import org.imanity.framework.metadata.MetadataMap;
-//import org.junit.Test;
-//
-//import java.util.UUID;
-//
-//import static org.junit.Assert.*;
+
+import org.imanity.framework.metadata.MetadataKey;
+import org.imanity.framework.metadata.MetadataMap;
+import org.imanity.framework.metadata.TransientValue;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
 
 public class MetadataTest {
 
-//    @Test
-    public void testMetadata() {
-//        // Make int metadata key
-//        MetadataKey<Integer> intKey = MetadataKey.createIntegerKey("test");
-//
-//        // Put into uuid cache
-//        UUID testUuid = UUID.randomUUID();
-//
-//        MetadataMap map = CommonMetadataRegistries.provide(testUuid);
-//        map.put(intKey, 20);
-//
-//        // Assert
-//        assertEquals(map, CommonMetadataRegistries.provide(testUuid));
-//        assertEquals(CommonMetadataRegistries.provide(testUuid).getOrNull(intKey), (Object) 20);
-//
-//        // Remove the metadata we just put
-//        CommonMetadataRegistries.provide(testUuid).remove(intKey);
-//
-//        // Assert Removal for Metadata
-//        assertNull(CommonMetadataRegistries.provide(testUuid).getOrNull(intKey));
-//
-//        CommonMetadataRegistries.remove(testUuid);
-//
-//        // Assert Removal for Metadata Map
-//        assertNull(CommonMetadataRegistries.getOrNull(testUuid));
+    private static final MetadataKey<Integer> INT_KEY = MetadataKey.createIntegerKey("test-int");
+    private static final MetadataKey<String> STRING_KEY = MetadataKey.createStringKey("test-string");
+
+    @Test
+    public void testPutAndGet() {
+        MetadataMap map = MetadataMap.create();
+        assertNull(map.getOrNull(INT_KEY));
+        assertFalse(map.has(INT_KEY));
+
+        map.put(INT_KEY, 20);
+        assertEquals((Integer) 20, map.getOrNull(INT_KEY));
+        assertTrue(map.has(INT_KEY));
+
+        map.put(INT_KEY, 30);
+        assertEquals((Integer) 30, map.getOrNull(INT_KEY));
+
+        assertTrue(map.remove(INT_KEY));
+        assertNull(map.getOrNull(INT_KEY));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testPutIfAbsent() {
+        MetadataMap map = MetadataMap.create();
+        assertTrue(map.putIfAbsent(STRING_KEY, "first"));
+        assertFalse(map.putIfAbsent(STRING_KEY, "second"));
+        assertEquals("first", map.getOrNull(STRING_KEY));
+    }
+
+    @Test(expected = ClassCastException.class)
+    public void testTypeMismatch() {
+        MetadataMap map = MetadataMap.create();
+        map.put(MetadataKey.createIntegerKey("same-id"), 1);
+        map.put(MetadataKey.createStringKey("same-id"), "1");
+    }
+
+    @Test
+    public void testExpiry() {
+        MetadataMap map = MetadataMap.create();
+        ControlledValue<Integer> value = new ControlledValue<>(10);
+
+        map.put(INT_KEY, value);
+        assertEquals((Integer) 10, map.getOrNull(INT_KEY));
+
+        value.expired = true;
+        assertNull(map.getOrNull(INT_KEY));
+        assertFalse(map.has(INT_KEY));
+
+        // an expired value can be replaced by putIfAbsent and getOrPut
+        map.put(INT_KEY, value);
+        assertTrue(map.putIfAbsent(INT_KEY, 5));
+        assertEquals((Integer) 5, map.getOrNull(INT_KEY));
+
+        map.put(INT_KEY, value);
+        assertEquals((Integer) 6, map.getOrPut(INT_KEY, () -> 6));
+
+        map.put(INT_KEY, value);
+        map.cleanup();
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testGetOrPut() {
+        MetadataMap map = MetadataMap.create();
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals((Integer) 1, map.getOrPut(INT_KEY, calls::incrementAndGet));
+        assertEquals((Integer) 1, map.getOrPut(INT_KEY, calls::incrementAndGet));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testGetOrPutSupplierUsingSameMap() {
+        MetadataMap map = MetadataMap.create();
+
+        // the supplier writes to the same map, like a board adapter does on creation
+        Integer value = map.getOrPut(INT_KEY, () -> {
+            map.put(STRING_KEY, "created");
+            assertNull(map.getOrNull(INT_KEY));
+            return 42;
+        });
+
+        assertEquals((Integer) 42, value);
+        assertEquals("created", map.getOrNull(STRING_KEY));
+    }
+
+    private static class ControlledValue<T> implements TransientValue<T> {
+
+        private final T value;
+        private boolean expired;
+
+        private ControlledValue(T value) {
+            this.value = value;
+        }
+
+        @Override
+        public T getOrNull() {
+            return this.expired ? null : this.value;
+        }
+
+        @Override
+        public boolean shouldExpire() {
+            return this.expired;
+        }
+
     }
 
 }
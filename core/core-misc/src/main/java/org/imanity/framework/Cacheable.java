@@ -70,6 +70,23 @@ public @interface Cacheable {
      */
     boolean preventArgumentNull() default true;
 
+    /**
+     * Share one computation between concurrent calls missing the same key,
+     * the other callers wait for its result instead of invoking the method.
+     *
+     * <p>A method that recursively calls itself with the same key must not use this.
+     */
+    boolean singleFlight() default false;
+
+    /**
+     * Fraction of the lifetime after which a cache hit reloads the entry
+     * asynchronously before it expires, 0 to disable.
+     *
+     * <p>For example 0.8 with a lifetime of 10 minutes reloads entries
+     * which are read after being cached for more than 8 minutes.
+     */
+    double refreshAhead() default 0;
+
     /**
      * Identifies a method that should flush all cached entities of
      * this class/object, before being executed.
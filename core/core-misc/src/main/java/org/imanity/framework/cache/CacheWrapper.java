@@ -36,6 +36,11 @@ public class CacheWrapper<T> implements Serializable, Cloneable {
 
     private SoftReference<T> cacheObject;
 
+    /**
+     * The cached object when the wrapper holds it strongly, only used if {@link #cacheObject} is null
+     */
+    private T strongObject;
+
     private long lastLoadTime;
 
     private long expireTime;
@@ -55,6 +60,23 @@ public class CacheWrapper<T> implements Serializable, Cloneable {
         this.expireTime = expireTime;
     }
 
+    /**
+     * Create a wrapper that keeps a strong reference to the cached object, so it can only be removed by the
+     * {@link org.imanity.framework.cache.manager.CacheManager} and never by the garbage collector
+     *
+     * @param cacheObject the cached object
+     * @param expireTime the time in milliseconds the object should be kept, 0 for forever
+     * @param <T> the type of the cached object
+     * @return the wrapper
+     */
+    public static <T> CacheWrapper<T> strong(T cacheObject, long expireTime) {
+        CacheWrapper<T> wrapper = new CacheWrapper<>();
+        wrapper.strongObject = cacheObject;
+        wrapper.lastLoadTime = System.currentTimeMillis();
+        wrapper.expireTime = expireTime;
+        return wrapper;
+    }
+
     public boolean isExpired() {
         if (expireTime > 0) {
             return (System.currentTimeMillis() - lastLoadTime) > expireTime;
@@ -63,6 +85,9 @@ public class CacheWrapper<T> implements Serializable, Cloneable {
     }
 
     public Object get() {
+        if (this.cacheObject == null) {
+            return this.strongObject;
+        }
         return this.cacheObject.get();
     }
 
@@ -71,6 +96,7 @@ public class CacheWrapper<T> implements Serializable, Cloneable {
         @SuppressWarnings("unchecked")
         CacheWrapper<T> tmp = (CacheWrapper<T>) super.clone();
         tmp.setCacheObject(this.cacheObject);
+        tmp.setStrongObject(this.strongObject);
         return tmp;
     }
 
@@ -44,6 +44,7 @@ import org.imanity.framework.cache.impl.CacheKeyString;
 import org.imanity.framework.cache.manager.CacheManager;
 import org.imanity.framework.cache.manager.CacheManagerConcurrentMap;
 import org.imanity.framework.cache.script.AbstractScriptParser;
+import org.imanity.framework.cache.script.KeyExpression;
 import org.imanity.framework.cache.script.SpringELParser;
 import org.imanity.framework.util.Stacktrace;
 import org.intellij.lang.annotations.Language;
@@ -65,13 +66,15 @@ public class CacheableAspect {
     public static final Logger LOGGER = LogManager.getLogger(CacheableAspect.class);
     public static CacheableAspect INSTANCE;
 
-    private transient final CacheManager defaultCacheManager;
+    private transient volatile CacheManager defaultCacheManager;
     private transient final Map<Class<?>, CacheManager> cacheManagers;
 
     public static ScheduledExecutorService CLEANER_SERVICE;
     public static ExecutorService UPDATER_SERVICE;
 
     private final AbstractScriptParser scriptParser;
+    private final Map<String, KeyExpression> keyExpressions;
+    private final Map<CacheKeyAbstract, CompletableFuture<Object>> inFlight;
 
     public CacheableAspect() {
         INSTANCE = this;
@@ -90,11 +93,12 @@ public class CacheableAspect {
         );
 
         this.defaultCacheManager = new CacheManagerConcurrentMap();
-        this.defaultCacheManager.init(this)
-        ;
+        this.defaultCacheManager.init(this);
 
         this.cacheManagers = new ConcurrentHashMap<>(0);
         this.scriptParser = new SpringELParser();
+        this.keyExpressions = new ConcurrentHashMap<>();
+        this.inFlight = new ConcurrentHashMap<>();
 
         CLEANER_SERVICE.scheduleAtFixedRate(() -> {
             this.defaultCacheManager.clean();
@@ -106,8 +110,6 @@ public class CacheableAspect {
 
     }
 
-    // TODO: Performance check, is this key reader efficient?
-
     private String readAnnotationKey(JoinPoint point, String value, boolean preventNull) {
         if (value == null || value.isEmpty()) {
             return "";
@@ -124,7 +126,9 @@ public class CacheableAspect {
         }
 
         try {
-            return this.scriptParser.getDefinedCacheKey(value, point.getTarget(), point.getArgs(), null, false);
+            return this.keyExpressions
+                    .computeIfAbsent(value, expression -> KeyExpression.compile(expression, this.scriptParser))
+                    .evaluate(point.getTarget(), args);
         } catch (Exception ex) {
             LOGGER.error(ex.getMessage(), ex);
         }
@@ -132,6 +136,16 @@ public class CacheableAspect {
         return "";
     }
 
+    /**
+     * Replace the cache manager used by every class without {@link EnableOwnCacheManager}
+     *
+     * @param cacheManager the new default cache manager, it will be initialized by this method
+     */
+    public void setDefaultCacheManager(CacheManager cacheManager) {
+        cacheManager.init(this);
+        this.defaultCacheManager = cacheManager;
+    }
+
     public CacheManager getCacheManager(Class<?> type) {
         CacheManager cacheManager = this.cacheManagers.getOrDefault(type, null);
 
@@ -174,26 +188,97 @@ public class CacheableAspect {
 
         final Cacheable annotation = method.getAnnotation(Cacheable.class);
         CacheKeyAbstract key = this.toKey(point, readAnnotationKey(point, annotation.key(), annotation.preventArgumentNull()));
-        @Language("SpEL") String condition = annotation.condition();
 
         CacheManager manager = this.getCacheManager(method.getDeclaringClass());
         CacheWrapper<?> wrapper = manager.find(key);
 
         if (wrapper != null) {
+            if (this.shouldRefresh(annotation, wrapper)) {
+                this.refresh(point, annotation, key, manager);
+            }
             return wrapper.get();
         }
 
+        if (annotation.singleFlight()) {
+            return this.loadSingleFlight(point, annotation, key, manager);
+        }
+
+        return this.load(point, annotation, key, manager);
+    }
+
+    private Object load(ProceedingJoinPoint point, Cacheable annotation, CacheKeyAbstract key, CacheManager manager) throws Throwable {
         Object result = point.proceed();
 
+        @Language("SpEL") String condition = annotation.condition();
         if (condition.length() != 0 && !this.checkCondition(condition, point.getTarget(), point.getArgs(), result, true)) {
             return result;
         }
 
-        wrapper = new CacheWrapper<>(result, annotation.forever() ? 0L : annotation.unit().toMillis(annotation.lifetime()));
+        CacheWrapper<?> wrapper = manager.wrap(result, annotation.forever() ? 0L : annotation.unit().toMillis(annotation.lifetime()));
         manager.cache(key, wrapper);
         return result;
     }
 
+    private Object loadSingleFlight(ProceedingJoinPoint point, Cacheable annotation, CacheKeyAbstract key, CacheManager manager) throws Throwable {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = this.inFlight.putIfAbsent(key, future);
+
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException ex) {
+                throw ex.getCause();
+            }
+        }
+
+        try {
+            // another caller could have finished loading between our find and putIfAbsent
+            CacheWrapper<?> wrapper = manager.find(key);
+            Object result = wrapper != null ? wrapper.get() : this.load(point, annotation, key, manager);
+
+            future.complete(result);
+            return result;
+        } catch (Throwable throwable) {
+            future.completeExceptionally(throwable);
+            throw throwable;
+        } finally {
+            this.inFlight.remove(key, future);
+        }
+    }
+
+    private boolean shouldRefresh(Cacheable annotation, CacheWrapper<?> wrapper) {
+        if (annotation.refreshAhead() <= 0 || wrapper.getExpireTime() <= 0) {
+            return false;
+        }
+
+        long age = System.currentTimeMillis() - wrapper.getLastLoadTime();
+        return age > wrapper.getExpireTime() * annotation.refreshAhead();
+    }
+
+    private void refresh(ProceedingJoinPoint point, Cacheable annotation, CacheKeyAbstract key, CacheManager manager) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        if (this.inFlight.putIfAbsent(key, future) != null) {
+            // already loading
+            return;
+        }
+
+        try {
+            UPDATER_SERVICE.execute(() -> {
+                try {
+                    future.complete(this.load(point, annotation, key, manager));
+                } catch (Throwable throwable) {
+                    future.completeExceptionally(throwable);
+                    LOGGER.error("Something wrong while refreshing cache for " + point.toShortString(), throwable);
+                } finally {
+                    this.inFlight.remove(key, future);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            this.inFlight.remove(key, future);
+            future.cancel(false);
+        }
+    }
+
     @Around("execution(* *(..)) && @annotation(org.imanity.framework.CachePut)")
     public Object cachePut(ProceedingJoinPoint point) throws Throwable {
         final Method method = ((MethodSignature) point.getSignature()).getMethod();
@@ -210,7 +295,7 @@ public class CacheableAspect {
             return result;
         }
 
-        CacheWrapper<?> wrapper = new CacheWrapper<>(result, annotation.forever() ? 0L : annotation.unit().toMillis(annotation.lifetime()));
+        CacheWrapper<?> wrapper = manager.wrap(result, annotation.forever() ? 0L : annotation.unit().toMillis(annotation.lifetime()));
         manager.cache(key, wrapper);
         return result;
     }
@@ -39,6 +39,10 @@ public abstract class CacheKeyAbstract {
         this.target = CacheKeyAbstract.findTarget(point);
     }
 
+    public Object getTarget() {
+        return this.target;
+    }
+
     public boolean sameTarget(final JoinPoint point, String key) {
         return CacheKeyAbstract.findTarget(point).equals(this.target);
     }
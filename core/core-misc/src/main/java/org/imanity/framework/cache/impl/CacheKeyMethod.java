@@ -28,22 +28,24 @@ import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
 import java.lang.reflect.Method;
 import java.util.Arrays;
-import java.util.Objects;
 
 public class CacheKeyMethod extends CacheKeyAbstract {
 
     private final Method method;
     private final Object[] arguments;
+    private final int hash;
 
     public CacheKeyMethod(final JoinPoint point) {
         super(point);
         this.method = ((MethodSignature) point.getSignature()).getMethod();
         this.arguments = point.getArgs();
+        // the target isn't hashed since it might be the cached method itself, like a cached hashCode()
+        this.hash = 31 * this.method.hashCode() + Arrays.deepHashCode(this.arguments);
     }
 
     @Override
     public final int hashCode() {
-        return Objects.hash(this.method);
+        return this.hash;
     }
 
     @Override
@@ -35,6 +35,17 @@ import java.util.Map;
 public interface CacheManager {
     void init(CacheableAspect cacheableAspect);
 
+    /**
+     * Create the wrapper that will be stored by this cache manager
+     *
+     * @param object the object to cache
+     * @param expireTime the time in milliseconds the object should be kept, 0 for forever
+     * @return the wrapper
+     */
+    default CacheWrapper<?> wrap(Object object, long expireTime) {
+        return new CacheWrapper<>(object, expireTime);
+    }
+
     void clean();
 
     Map<CacheKeyAbstract, CacheWrapper<?>> getAsMap();
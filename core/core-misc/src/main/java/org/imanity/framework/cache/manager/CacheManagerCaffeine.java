@@ -0,0 +1,186 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Imanity
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.imanity.framework.cache.manager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.google.common.collect.ImmutableMap;
+import org.aspectj.lang.JoinPoint;
+import org.imanity.framework.cache.CacheWrapper;
+import org.imanity.framework.cache.CacheableAspect;
+import org.imanity.framework.cache.impl.CacheKeyAbstract;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded {@link CacheManager} backed by Caffeine
+ *
+ * Entries are strongly referenced and evicted by size (W-TinyLFU) or by the lifetime declared on the annotation,
+ * override {@link #maximumSize()} or {@link #maximumWeight()} and {@link #weigh(CacheKeyAbstract, CacheWrapper)}
+ * to change the bounds.
+ */
+public class CacheManagerCaffeine implements CacheManager {
+
+    public static final long DEFAULT_MAXIMUM_SIZE = 10_000L;
+
+    private transient Cache<CacheKeyAbstract, CacheWrapper<?>> cache;
+    private transient CacheTargetIndex targetIndex;
+
+    private CacheableAspect cacheableAspect;
+
+    @Override
+    public void init(CacheableAspect cacheableAspect) {
+        this.cacheableAspect = cacheableAspect;
+        this.targetIndex = new CacheTargetIndex();
+
+        Caffeine<CacheKeyAbstract, CacheWrapper<?>> builder = Caffeine.newBuilder()
+                .expireAfter(new WrapperExpiry())
+                .removalListener((CacheKeyAbstract key, CacheWrapper<?> wrapper, RemovalCause cause) -> {
+                    if (key != null) {
+                        this.targetIndex.remove(key, wrapper);
+                    }
+                })
+                .executor(Runnable::run)
+                .recordStats();
+
+        final long maximumWeight = this.maximumWeight();
+        if (maximumWeight >= 0) {
+            builder.maximumWeight(maximumWeight).weigher(this::weigh);
+        } else {
+            builder.maximumSize(this.maximumSize());
+        }
+
+        this.cache = builder.build();
+    }
+
+    /**
+     * @return the maximum amount of entries this cache manager holds, ignored if {@link #maximumWeight()} is set
+     */
+    protected long maximumSize() {
+        return DEFAULT_MAXIMUM_SIZE;
+    }
+
+    /**
+     * @return the maximum total weight of the entries this cache manager holds, -1 to bound by size instead
+     */
+    protected long maximumWeight() {
+        return -1L;
+    }
+
+    /**
+     * @return the weight of an entry, only used if {@link #maximumWeight()} is set
+     */
+    protected int weigh(CacheKeyAbstract key, CacheWrapper<?> wrapper) {
+        return 1;
+    }
+
+    /**
+     * @return the hit, miss and eviction statistics of this cache manager
+     */
+    public CacheStats stats() {
+        return this.cache.stats();
+    }
+
+    @Override
+    public CacheWrapper<?> wrap(Object object, long expireTime) {
+        return CacheWrapper.strong(object, expireTime);
+    }
+
+    @Override
+    public void clean() {
+        this.cache.cleanUp();
+    }
+
+    @Override
+    public Map<CacheKeyAbstract, CacheWrapper<?>> getAsMap() {
+        return ImmutableMap.copyOf(this.cache.asMap());
+    }
+
+    @Override
+    public <T> Collection<T> findByType(Class<T> type) {
+        Set<T> results = new HashSet<>();
+        for (CacheWrapper<?> wrapper : this.cache.asMap().values()) {
+            Object object = wrapper.get();
+            if (type.isInstance(object)) {
+                results.add((T) object);
+            }
+        }
+
+        return results;
+    }
+
+    @Override
+    public CacheWrapper<?> find(CacheKeyAbstract key) {
+        return this.cache.getIfPresent(key);
+    }
+
+    @Override
+    public void cache(CacheKeyAbstract key, CacheWrapper<?> wrapper) throws Throwable {
+        this.cache.put(key, wrapper);
+        this.targetIndex.add(key, wrapper);
+
+        // Removed before it was indexed, the removal listener couldn't unindex it
+        if (this.cache.asMap().get(key) != wrapper) {
+            this.targetIndex.remove(key, wrapper);
+        }
+    }
+
+    @Override
+    public void evict(JoinPoint point, String keyString) {
+        this.cache.invalidate(this.cacheableAspect.toKey(point, keyString));
+    }
+
+    @Override
+    public void flush(JoinPoint point) {
+        this.cache.invalidateAll(this.targetIndex.removeAll(CacheKeyAbstract.findTarget(point)));
+    }
+
+    private static final class WrapperExpiry implements Expiry<CacheKeyAbstract, CacheWrapper<?>> {
+
+        @Override
+        public long expireAfterCreate(CacheKeyAbstract key, CacheWrapper<?> wrapper, long currentTime) {
+            final long expireTime = wrapper.getExpireTime();
+            return expireTime > 0 ? TimeUnit.MILLISECONDS.toNanos(expireTime) : Long.MAX_VALUE;
+        }
+
+        @Override
+        public long expireAfterUpdate(CacheKeyAbstract key, CacheWrapper<?> wrapper, long currentTime, long currentDuration) {
+            return this.expireAfterCreate(key, wrapper, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(CacheKeyAbstract key, CacheWrapper<?> wrapper, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+}
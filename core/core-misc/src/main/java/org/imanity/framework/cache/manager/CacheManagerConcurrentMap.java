@@ -39,6 +39,7 @@ import java.util.concurrent.*;
 public class CacheManagerConcurrentMap implements CacheManager {
 
     private transient ConcurrentMap<CacheKeyAbstract, CacheWrapper<?>> cache;
+    private transient CacheTargetIndex targetIndex;
 
     private CacheableAspect cacheableAspect;
 
@@ -46,11 +47,16 @@ public class CacheManagerConcurrentMap implements CacheManager {
     public void init(CacheableAspect cacheableAspect) {
         this.cacheableAspect = cacheableAspect;
         this.cache = new ConcurrentHashMap<>();
+        this.targetIndex = new CacheTargetIndex();
     }
 
     @Override
     public void clean() {
-        this.cache.entrySet().removeIf(entry -> entry.getValue().isExpired());
+        for (Map.Entry<CacheKeyAbstract, CacheWrapper<?>> entry : this.cache.entrySet()) {
+            if (entry.getValue().isExpired() && this.cache.remove(entry.getKey(), entry.getValue())) {
+                this.targetIndex.remove(entry.getKey(), entry.getValue());
+            }
+        }
     }
 
     @Override
@@ -75,7 +81,9 @@ public class CacheManagerConcurrentMap implements CacheManager {
     public CacheWrapper<?> find(CacheKeyAbstract key) {
         CacheWrapper<?> wrapper = this.cache.get(key);
         if (wrapper != null && wrapper.isExpired()) {
-            this.cache.remove(key);
+            if (this.cache.remove(key, wrapper)) {
+                this.targetIndex.remove(key, wrapper);
+            }
             return null;
         }
 
@@ -85,24 +93,26 @@ public class CacheManagerConcurrentMap implements CacheManager {
     @Override
     public void cache(CacheKeyAbstract key, CacheWrapper<?> wrapper) throws Throwable {
         this.cache.put(key, wrapper);
+        this.targetIndex.add(key, wrapper);
+
+        // Removed before it was indexed, the remover couldn't unindex it
+        if (this.cache.get(key) != wrapper) {
+            this.targetIndex.remove(key, wrapper);
+        }
     }
 
     @Override
     public void evict(JoinPoint point, String keyString) {
-        for (final CacheKeyAbstract key : this.cache.keySet()) {
-            if (!key.equals(this.cacheableAspect.toKey(point, keyString))) {
-                continue;
-            }
-            this.cache.remove(key);
+        final CacheKeyAbstract key = this.cacheableAspect.toKey(point, keyString);
+        final CacheWrapper<?> wrapper = this.cache.remove(key);
+        if (wrapper != null) {
+            this.targetIndex.remove(key, wrapper);
         }
     }
 
     @Override
     public void flush(JoinPoint point) {
-        for (final CacheKeyAbstract key : this.cache.keySet()) {
-            if (!key.sameTarget(point, null)) {
-                continue;
-            }
+        for (final CacheKeyAbstract key : this.targetIndex.removeAll(CacheKeyAbstract.findTarget(point))) {
             this.cache.remove(key);
         }
     }
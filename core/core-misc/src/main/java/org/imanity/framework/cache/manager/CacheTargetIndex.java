@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Imanity
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.imanity.framework.cache.manager;
+
+import org.imanity.framework.cache.CacheWrapper;
+import org.imanity.framework.cache.impl.CacheKeyAbstract;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the cached keys owned by each target, so flushing a target only touches its own entries
+ *
+ * Targets are compared by identity, their hashCode() could itself be a cached method. Every key remembers the wrapper
+ * it was indexed with so removing a stale wrapper never unindexes a newer entry cached under the same key.
+ */
+final class CacheTargetIndex {
+
+    private final Map<Target, Map<CacheKeyAbstract, CacheWrapper<?>>> keys = new ConcurrentHashMap<>();
+
+    public void add(CacheKeyAbstract key, CacheWrapper<?> wrapper) {
+        this.keys.compute(new Target(key.getTarget()), (target, keys) -> {
+            if (keys == null) {
+                keys = new ConcurrentHashMap<>();
+            }
+            keys.put(key, wrapper);
+            return keys;
+        });
+    }
+
+    public void remove(CacheKeyAbstract key, CacheWrapper<?> wrapper) {
+        this.keys.computeIfPresent(new Target(key.getTarget()), (target, keys) -> {
+            keys.remove(key, wrapper);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    public Set<CacheKeyAbstract> removeAll(Object target) {
+        Map<CacheKeyAbstract, CacheWrapper<?>> removed = this.keys.remove(new Target(target));
+        return removed != null ? removed.keySet() : Collections.emptySet();
+    }
+
+    public void clear() {
+        this.keys.clear();
+    }
+
+    private static final class Target {
+
+        private final Object target;
+
+        private Target(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o instanceof Target && ((Target) o).target == this.target);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this.target);
+        }
+    }
+
+}
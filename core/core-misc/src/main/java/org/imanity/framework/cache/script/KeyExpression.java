@@ -0,0 +1,131 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Imanity
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.imanity.framework.cache.script;
+
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A cache key expression analysed once per annotation value
+ *
+ * Plain strings, {@code #args[n]} and {@code 'prefix' + #args[n]} are evaluated directly,
+ * every other expression falls back to the {@link AbstractScriptParser}.
+ */
+public abstract class KeyExpression {
+
+    private static final Pattern ARGUMENT = Pattern.compile("^\\s*#args\\[(\\d+)]\\s*$");
+    private static final Pattern PREFIXED_ARGUMENT = Pattern.compile("^\\s*'([^']*)'\\s*\\+\\s*#args\\[(\\d+)]\\s*$");
+
+    public static KeyExpression compile(String expression, AbstractScriptParser scriptParser) {
+        if (expression.indexOf('#') == -1 && expression.indexOf('\'') == -1) {
+            return new Constant(expression);
+        }
+
+        Matcher matcher = ARGUMENT.matcher(expression);
+        if (matcher.matches()) {
+            return new Argument(expression, scriptParser, "", Integer.parseInt(matcher.group(1)));
+        }
+
+        matcher = PREFIXED_ARGUMENT.matcher(expression);
+        if (matcher.matches()) {
+            return new Argument(expression, scriptParser, matcher.group(1), Integer.parseInt(matcher.group(2)));
+        }
+
+        return new Script(expression, scriptParser);
+    }
+
+    public abstract String evaluate(Object target, Object[] arguments) throws Exception;
+
+    private static final class Constant extends KeyExpression {
+
+        private final String key;
+
+        private Constant(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public String evaluate(Object target, Object[] arguments) {
+            return this.key;
+        }
+    }
+
+    private static final class Argument extends KeyExpression {
+
+        private final Script fallback;
+        private final String prefix;
+        private final int index;
+
+        private Argument(String expression, AbstractScriptParser scriptParser, String prefix, int index) {
+            this.fallback = new Script(expression, scriptParser);
+            this.prefix = prefix;
+            this.index = index;
+        }
+
+        @Override
+        public String evaluate(Object target, Object[] arguments) throws Exception {
+            if (arguments == null || this.index >= arguments.length) {
+                return this.fallback.evaluate(target, arguments);
+            }
+
+            Object argument = arguments[this.index];
+            if (argument == null) {
+                // a lone null argument evaluates to null, keep the same behaviour as the script parser
+                return this.prefix.isEmpty() ? null : this.prefix + "null";
+            }
+
+            final String value;
+            if (argument instanceof Enum) {
+                value = ((Enum<?>) argument).name();
+            } else if (argument instanceof CharSequence || argument instanceof Number || argument instanceof Boolean
+                    || argument instanceof Character || argument instanceof UUID) {
+                value = argument.toString();
+            } else {
+                // arrays, collections and custom types are converted by the script parser
+                return this.fallback.evaluate(target, arguments);
+            }
+
+            return this.prefix.isEmpty() ? value : this.prefix.concat(value);
+        }
+    }
+
+    private static final class Script extends KeyExpression {
+
+        private final String expression;
+        private final AbstractScriptParser scriptParser;
+
+        private Script(String expression, AbstractScriptParser scriptParser) {
+            this.expression = expression;
+            this.scriptParser = scriptParser;
+        }
+
+        @Override
+        public String evaluate(Object target, Object[] arguments) throws Exception {
+            return this.scriptParser.getDefinedCacheKey(this.expression, target, arguments, null, false);
+        }
+    }
+
+}
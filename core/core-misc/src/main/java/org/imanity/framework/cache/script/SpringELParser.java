@@ -31,7 +31,6 @@ import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 
 import java.lang.reflect.Method;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -75,6 +74,16 @@ public class SpringELParser extends AbstractScriptParser {
 
     private final ConcurrentHashMap<String, Method> funcs = new ConcurrentHashMap<String, Method>(8);
 
+    /**
+     * Bumped every time a function is added, so pooled contexts know to register it
+     */
+    private volatile int functionVersion;
+
+    /**
+     * Evaluation contexts are reused per thread instead of being rebuilt on every evaluation
+     */
+    private final ThreadLocal<PooledContext> contexts = ThreadLocal.withInitial(PooledContext::new);
+
     /**
      * @param name   方法名
      * @param method 方法
@@ -82,6 +91,7 @@ public class SpringELParser extends AbstractScriptParser {
     @Override
     public void addFunction(String name, Method method) {
         funcs.put(name, method);
+        functionVersion++;
     }
 
     @SuppressWarnings("unchecked")
@@ -94,26 +104,66 @@ public class SpringELParser extends AbstractScriptParser {
                 return (T) keySpEL;
             }
         }
-        StandardEvaluationContext context = new StandardEvaluationContext();
+        PooledContext pooledContext = this.contexts.get();
+        StandardEvaluationContext context = pooledContext.acquire();
+
+        context.setVariable(TARGET, target);
+        context.setVariable(ARGS, arguments);
+        // setting null removes the variable left from the previous evaluation
+        context.setVariable(RET_VAL, hasRetVal ? retVal : null);
+
+        Expression expression = expCache.computeIfAbsent(keySpEL, parser::parseExpression);
+        try {
+            return expression.getValue(context, valueType);
+        } finally {
+            pooledContext.release(context);
+        }
+    }
 
+    private void registerFunctions(StandardEvaluationContext context) {
         context.registerFunction(HASH, hash);
         context.registerFunction(EMPTY, empty);
-        Iterator<Map.Entry<String, Method>> it = funcs.entrySet().iterator();
-        while (it.hasNext()) {
-            Map.Entry<String, Method> entry = it.next();
+        for (Map.Entry<String, Method> entry : funcs.entrySet()) {
             context.registerFunction(entry.getKey(), entry.getValue());
         }
-        context.setVariable(TARGET, target);
-        context.setVariable(ARGS, arguments);
-        if (hasRetVal) {
-            context.setVariable(RET_VAL, retVal);
+    }
+
+    private final class PooledContext {
+
+        private final StandardEvaluationContext context = new StandardEvaluationContext();
+        private int version = -1;
+
+        /*
+         * How many evaluations are running on this thread, an expression calling a
+         * cached method evaluates again before the outer evaluation is done
+         */
+        private int depth;
+
+        private StandardEvaluationContext acquire() {
+            if (this.depth++ > 0) {
+                // nested evaluations get their own context so the outer variables stay bound
+                StandardEvaluationContext context = new StandardEvaluationContext();
+                registerFunctions(context);
+                return context;
+            }
+
+            final int currentVersion = functionVersion;
+            if (this.version != currentVersion) {
+                registerFunctions(this.context);
+                this.version = currentVersion;
+            }
+            return this.context;
         }
-        Expression expression = expCache.get(keySpEL);
-        if (null == expression) {
-            expression = parser.parseExpression(keySpEL);
-            expCache.put(keySpEL, expression);
+
+        private void release(StandardEvaluationContext context) {
+            this.depth--;
+            if (context == this.context) {
+                context.setVariable(TARGET, null);
+                context.setVariable(ARGS, null);
+                context.setVariable(RET_VAL, null);
+            }
         }
-        return expression.getValue(context, valueType);
+
     }
 
 }
@@ -29,18 +29,26 @@ import org.hamcrest.MatcherAssert;
 import org.imanity.framework.CacheEvict;
 import org.imanity.framework.CachePut;
 import org.imanity.framework.Cacheable;
+import org.imanity.framework.cache.CacheableAspect;
 import org.imanity.framework.cache.EnableOwnCacheManager;
+import org.imanity.framework.cache.manager.CacheManagerCaffeine;
+import org.imanity.framework.cache.script.SpringELParser;
 import org.junit.Test;
 
 import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class CacheableTest {
 
     private static final Random RANDOM = new SecureRandom();
+    private static final SpringELParser NESTED_PARSER = new SpringELParser();
 
     @Test
     public void cacheSimpleCall() {
@@ -54,6 +62,18 @@ public class CacheableTest {
         );
     }
 
+    @Test
+    public void flushesOnlyOwnTarget() {
+        CacheableTest.Foo first = new Foo(1L);
+        CacheableTest.Foo second = new Foo(2L);
+        String firstValue = first.get().toString();
+        String secondValue = second.get().toString();
+
+        first.flush();
+        MatcherAssert.assertThat(first.get().toString(), CoreMatchers.not(CoreMatchers.equalTo(firstValue)));
+        MatcherAssert.assertThat(second.get().toString(), CoreMatchers.equalTo(secondValue));
+    }
+
     @Test
     public void cachesSimpleStaticCall() throws Exception {
         final String first = CacheableTest.Foo.staticGet();
@@ -77,6 +97,15 @@ public class CacheableTest {
         );
     }
 
+    @Test
+    public void cachesByArguments() {
+        final CacheableTest.Bar bar = new CacheableTest.Bar();
+        long first = bar.get(1);
+
+        MatcherAssert.assertThat(first, CoreMatchers.equalTo(bar.get(1)));
+        MatcherAssert.assertThat(first, CoreMatchers.not(bar.get(2)));
+    }
+
     @Test
     public void testKey() throws Exception {
         Imanity imanity = new Imanity();
@@ -117,6 +146,145 @@ public class CacheableTest {
         imanity.test((String) null);
     }
 
+    @Test
+    public void cachesWithCaffeineManager() {
+        Bounded bounded = new Bounded();
+
+        long first = bounded.test(1);
+        MatcherAssert.assertThat(first, CoreMatchers.equalTo(bounded.test(1)));
+
+        bounded.evict(1);
+        MatcherAssert.assertThat(first, CoreMatchers.not(bounded.test(1)));
+
+        CacheManagerCaffeine manager = (CacheManagerCaffeine) CacheableAspect.INSTANCE.getCacheManager(Bounded.class);
+        MatcherAssert.assertThat(manager.stats().hitCount(), CoreMatchers.equalTo(1L));
+        MatcherAssert.assertThat(manager.stats().missCount(), CoreMatchers.equalTo(2L));
+    }
+
+    @Test
+    public void evaluatesNestedExpressions() throws Exception {
+        NESTED_PARSER.addFunction("nested", CacheableTest.class.getDeclaredMethod("nested"));
+
+        // the function evaluates another expression on the same thread before #args is read
+        String value = NESTED_PARSER.getElValue("#nested() + '-' + #args[0]", null, new Object[] { 1 }, String.class);
+        MatcherAssert.assertThat(value, CoreMatchers.equalTo("2-1"));
+    }
+
+    public static String nested() throws Exception {
+        return NESTED_PARSER.getElValue("#args[0]", null, new Object[] { 2 }, String.class);
+    }
+
+    @Test
+    public void sharesConcurrentLoads() throws Exception {
+        Loader loader = new Loader();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            // the first load is held open until it is released
+            Future<Object> firstLoad = executor.submit(() -> loader.load(1));
+            MatcherAssert.assertThat(loader.loadStarted.await(10L, TimeUnit.SECONDS), CoreMatchers.equalTo(true));
+
+            AtomicReference<Object> secondLoad = new AtomicReference<>();
+            Thread secondCaller = new Thread(() -> {
+                try {
+                    secondLoad.set(loader.load(1));
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            secondCaller.start();
+
+            // the second caller parks on the running load, or on the latch if it started a load of its own
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10L);
+            while (secondCaller.getState() != Thread.State.WAITING && secondCaller.getState() != Thread.State.TIMED_WAITING) {
+                MatcherAssert.assertThat(System.currentTimeMillis() < deadline, CoreMatchers.equalTo(true));
+                Thread.yield();
+            }
+            MatcherAssert.assertThat(loader.loads.get(), CoreMatchers.equalTo(1));
+
+            loader.releaseLoad.countDown();
+            secondCaller.join(TimeUnit.SECONDS.toMillis(10L));
+
+            MatcherAssert.assertThat(secondLoad.get(), CoreMatchers.sameInstance(firstLoad.get(10L, TimeUnit.SECONDS)));
+            MatcherAssert.assertThat(loader.loads.get(), CoreMatchers.equalTo(1));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void refreshesAhead() throws Exception {
+        Loader loader = new Loader();
+
+        long first = loader.refreshing(1);
+
+        // once the value is old enough a call starts the reload, the reload is held until released
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10L);
+        while (!loader.refreshStarted.await(1L, TimeUnit.MILLISECONDS)) {
+            MatcherAssert.assertThat(loader.refreshing(1), CoreMatchers.equalTo(first));
+            MatcherAssert.assertThat(System.currentTimeMillis() < deadline, CoreMatchers.equalTo(true));
+        }
+
+        // still served from the cache while the reload is running
+        MatcherAssert.assertThat(loader.refreshing(1), CoreMatchers.equalTo(first));
+        MatcherAssert.assertThat(loader.refreshes.get(), CoreMatchers.equalTo(2));
+
+        loader.releaseRefresh.countDown();
+
+        long value = first;
+        while (value == first) {
+            MatcherAssert.assertThat(System.currentTimeMillis() < deadline, CoreMatchers.equalTo(true));
+            Thread.yield();
+            value = loader.refreshing(1);
+        }
+        MatcherAssert.assertThat(loader.refreshes.get(), CoreMatchers.equalTo(2));
+    }
+
+    private static final class Loader {
+
+        private final AtomicInteger loads = new AtomicInteger();
+        private final CountDownLatch loadStarted = new CountDownLatch(1);
+        private final CountDownLatch releaseLoad = new CountDownLatch(1);
+
+        private final AtomicInteger refreshes = new AtomicInteger();
+        private final CountDownLatch refreshStarted = new CountDownLatch(1);
+        private final CountDownLatch releaseRefresh = new CountDownLatch(1);
+
+        @Cacheable(key = "'load-' + #args[0]", singleFlight = true)
+        public Object load(int id) throws InterruptedException {
+            this.loads.incrementAndGet();
+            this.loadStarted.countDown();
+            this.releaseLoad.await();
+            return new Object();
+        }
+
+        // refreshes once the value is a few milliseconds old
+        @Cacheable(key = "'refresh-' + #args[0]", lifetime = 1, unit = TimeUnit.HOURS, refreshAhead = 0.000001)
+        public long refreshing(int id) throws InterruptedException {
+            if (this.refreshes.incrementAndGet() > 1) {
+                this.refreshStarted.countDown();
+                this.releaseRefresh.await();
+            }
+            return RANDOM.nextLong();
+        }
+
+    }
+
+    @EnableOwnCacheManager(CacheManagerCaffeine.class)
+    private static final class Bounded {
+
+        @Cacheable(key = "'bounded-' + #args[0]")
+        public long test(int id) {
+            return RANDOM.nextLong();
+        }
+
+        @CacheEvict(value = "'bounded-' + #args[0]")
+        public void evict(int id) {
+
+        }
+
+    }
+
     @EnableOwnCacheManager
     private static final class Imanity {
 
@@ -249,6 +417,11 @@ public class CacheableTest {
             return CacheableTest.RANDOM.nextLong();
         }
 
+        @Cacheable
+        public long get(int id) {
+            return CacheableTest.RANDOM.nextLong();
+        }
+
     }
 
 }
@@ -31,6 +31,7 @@ import org.imanity.framework.mysql.pojo.Query;
 import org.imanity.framework.mysql.pojo.Transaction;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @AllArgsConstructor
 @Data
@@ -104,6 +105,14 @@ public class Session implements AutoCloseable {
         return this.query().results(clazz);
     }
 
+    /**
+     * Execute a "select" query and map its rows lazily as the stream is consumed.
+     * See {@link Query#stream(Class) stream}.
+     */
+    public <T> Stream<T> stream(Class<T> clazz) {
+        return this.query().stream(clazz);
+    }
+
     /**
      * Returns the first row in a query in a pojo. Will return it in a Map if a
      * class that implements Map is specified.
@@ -128,6 +137,22 @@ public class Session implements AutoCloseable {
         return this.query().upsert(row);
     }
 
+    /**
+     * Upsert many rows of the same type in batches of batchSize. See
+     * {@link Query#upsertAll(List, int) upsertAll}.
+     */
+    public int upsertAll(List<?> rows, int batchSize) {
+        return this.query().upsertAll(rows, batchSize);
+    }
+
+    /**
+     * Delete the rows of the given type matching the primary keys in batches of
+     * batchSize. See {@link Query#deleteAllById(Class, List, int) deleteAllById}.
+     */
+    public int deleteAllById(Class<?> clazz, List<?> ids, int batchSize) {
+        return this.query().deleteAllById(clazz, ids, batchSize);
+    }
+
     /**
      * Create a query and specify which table it operates on.
      */
@@ -42,6 +42,7 @@ public class PostgreConnectionFactory extends HikariConnectionFactory {
         this.config.addDataSourceProperty("databaseName", databaseName);
         this.config.addDataSourceProperty("user", username);
         this.config.addDataSourceProperty("password", password);
+        this.config.addDataSourceProperty("reWriteBatchedInserts", "true");
     }
 
     @Override
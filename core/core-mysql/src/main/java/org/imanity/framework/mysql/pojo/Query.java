@@ -32,16 +32,24 @@ import org.imanity.framework.mysql.pojo.statement.SqlStatementBuilder;
 import org.imanity.framework.mysql.util.SQLUtil;
 import org.intellij.lang.annotations.Language;
 
-import java.lang.reflect.InvocationTargetException;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Getter
 public class Query {
 
+	public static final int DEFAULT_FETCH_SIZE = 500;
+
 	private Object generatedKeyReceiver;
 	private String[] generatedKeyNames;
 
@@ -63,6 +71,9 @@ public class Query {
 
 	private Transaction transaction;
 
+	private int limit;
+	private int fetchSize;
+
 	public Query(AbstractConnectionFactory factory) {
 		this.factory = factory;
 		this.sqlStatementBuilder = factory.builder();
@@ -161,12 +172,60 @@ public class Query {
 		return this;
 	}
 
+	/**
+	 * Cap the number of rows a select returns. Generated selects carry it as a
+	 * dialect specific limit clause, hand written sql through .sql() is capped
+	 * by the driver instead.
+	 */
+	public Query limit(int limit) {
+		this.limit = limit;
+		return this;
+	}
+
+	/**
+	 * Hint how many rows the driver should fetch per round trip, mostly useful
+	 * with .stream().
+	 */
+	public Query fetchSize(int fetchSize) {
+		this.fetchSize = fetchSize;
+		return this;
+	}
+
+	/**
+	 * Select the page of rows following the row whose column equals after (or
+	 * the first page when after is null), ordered by that column. Paging on an
+	 * indexed, unique column this way costs the same for every page, unlike an
+	 * offset. An existing .where() is kept and and-ed with the keyset condition.
+	 */
+	public Query keyset(String column, Object after, int pageSize) {
+		if (!this.wheres.isEmpty()) {
+			throw new IllegalStateException("keyset can't be combined with whereQuery, use where instead");
+		}
+
+		if (after != null) {
+			String condition = column + " > ?";
+			if (this.where == null) {
+				this.where = condition;
+				this.args = new Object[] { after };
+			} else {
+				this.where = "(" + this.where + ") and " + condition;
+
+				Object[] args = this.args != null ? Arrays.copyOf(this.args, this.args.length + 1) : new Object[1];
+				args[args.length - 1] = after;
+				this.args = args;
+			}
+		}
+		this.orderBy = column;
+		this.limit = pageSize;
+		return this;
+	}
+
 	/**
 	 * Returns the first row in a query in a pojo, or null if the query returns no
 	 * results. Will return it in a Map if a class that implements Map is specified.
 	 */
 	public <T> T first(Class<T> clazz) {
-		List<T> list = results(clazz);
+		List<T> list = limit(1).results(clazz);
 		if (list.size() > 0) {
 			return list.get(0);
 		} else {
@@ -175,11 +234,12 @@ public class Query {
 	}
 
 	/**
-	 * Provides the results as a list of Map objects instead of a list of pojos.
+	 * Execute a "select" query and return a list of results where each row is an
+	 * instance of clazz. Returns an empty list if there are no results.
 	 */
-	private List<Map<String, Object>> resultsMap(Class<Map<String, Object>> clazz) {
+	public <T> List<T> results(Class<T> clazz) {
 
-		List<Map<String, Object>> result = new ArrayList<Map<String, Object>>();
+		List<T> out = new ArrayList<T>();
 		Connection con = null;
 		PreparedStatement state = null;
 
@@ -196,53 +256,42 @@ public class Query {
 				localCon = transaction.getConnection();
 			}
 
-			state = localCon.prepareStatement(sql);
-			loadArgs(state);
+			state = prepareSelect(localCon);
 
-			ResultSet resultSet = state.executeQuery();
-
-			metaData = resultSet.getMetaData();
-			int colCount = metaData.getColumnCount();
+			ResultSet rs = state.executeQuery();
 
-			while (resultSet.next()) {
-				Map<String, Object> map;
-				if (clazz.equals(Map.class)) {
-					map = new HashMap<>();
-				} else {
-					map = clazz.getDeclaredConstructor().newInstance();
-				}
+			metaData = rs.getMetaData();
 
-				for (int i = 1; i <= colCount; i++) {
-					String columnName = metaData.getColumnLabel(i);
-					map.put(columnName, resultSet.getObject(i));
-				}
-				result.add(map);
+			RowReader<T> rowReader = rowReader(clazz);
+			while (rs.next()) {
+				out.add(rowReader.read(rs));
 			}
 
-		} catch (InstantiationException | IllegalAccessException | SQLException | IllegalArgumentException
-				| InvocationTargetException | NoSuchMethodException | SecurityException e) {
-			throw new ImanitySqlException(e);
+		} catch (SQLException | IllegalArgumentException | SecurityException e) {
+			ImanitySqlException dbe = new ImanitySqlException(e);
+			dbe.setSql(sql);
+			throw dbe;
 		} finally {
 			close(state);
 			close(con);
 		}
 
-		return result;
+		return out;
 	}
 
 	/**
-	 * Execute a "select" query and return a list of results where each row is an
-	 * instance of clazz. Returns an empty list if there are no results.
+	 * Execute a "select" query and lazily map its rows as the stream is consumed,
+	 * through a forward-only cursor fetching fetchSize rows at a time, or row by
+	 * row where the dialect streams (see
+	 * {@link SqlStatementBuilder#getStreamingFetchSize(int)}). Without a
+	 * transaction the stream runs in its own, so the connection stays open until
+	 * the stream is closed; use it in a try-with-resources block.
 	 */
-	@SuppressWarnings("unchecked")
-	public <T> List<T> results(Class<T> clazz) {
-		if (Map.class.isAssignableFrom(clazz)) {
-			return (List<T>) resultsMap((Class<Map<String, Object>>) clazz);
-		}
+	public <T> Stream<T> stream(Class<T> clazz) {
 
-		List<T> out = new ArrayList<T>();
-		Connection con = null;
+		Transaction ownTransaction = null;
 		PreparedStatement state = null;
+		ResultSet rs = null;
 
 		try {
 			if (sql == null) {
@@ -251,54 +300,129 @@ public class Query {
 
 			Connection localCon;
 			if (transaction == null) {
-				localCon = factory.connection();
-				con = localCon; // con gets closed below if non-null
+				// cursors only survive outside auto-commit on some drivers (Postgres)
+				ownTransaction = factory.startTransaction();
+				localCon = ownTransaction.getConnection();
 			} else {
 				localCon = transaction.getConnection();
 			}
 
-			state = localCon.prepareStatement(sql);
-			loadArgs(state);
+			fetchSize = sqlStatementBuilder.getStreamingFetchSize(fetchSize > 0 ? fetchSize : DEFAULT_FETCH_SIZE);
+			state = prepareSelect(localCon);
 
-			ResultSet rs = state.executeQuery();
+			rs = state.executeQuery();
 
 			metaData = rs.getMetaData();
-			int colCount = metaData.getColumnCount();
 
-			if (SQLUtil.isPrimitiveOrString(clazz) || clazz.getPackage().getName().startsWith("java.sql")) {
-				// if the receiver class is a primitive or jdbc type just grab the first column
-				// and assign it
-				while (rs.next()) {
-					Object colValue = rs.getObject(1);
-					out.add((T) colValue);
+			RowReader<T> rowReader = rowReader(clazz);
+			ResultSet resultSet = rs;
+			// set once reading or consuming a row threw, the own transaction is then rolled back on close
+			boolean[] failed = new boolean[1];
+			Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, Spliterator.ORDERED) {
+				@Override
+				public boolean tryAdvance(Consumer<? super T> action) {
+					try {
+						if (!resultSet.next()) {
+							return false;
+						}
+						action.accept(rowReader.read(resultSet));
+						return true;
+					} catch (SQLException e) {
+						failed[0] = true;
+						ImanitySqlException dbe = new ImanitySqlException(e);
+						dbe.setSql(sql);
+						throw dbe;
+					} catch (RuntimeException | Error e) {
+						failed[0] = true;
+						throw e;
+					}
 				}
-
-			} else {
-				PojoInfo pojoInfo = sqlStatementBuilder.getPojoInfo(clazz);
-				while (rs.next()) {
-					T row = clazz.getDeclaredConstructor().newInstance();
-
-					for (int i = 1; i <= colCount; i++) {
-						String colName = metaData.getColumnLabel(i);
-						Object colValue = sqlStatementBuilder.convertValue(rs.getObject(i), metaData.getColumnTypeName(i));
-
-						pojoInfo.putValue(row, colName, colValue, true);
+			};
+
+			PreparedStatement statement = state;
+			Transaction streamTransaction = ownTransaction;
+			return StreamSupport.stream(spliterator, false).onClose(() -> {
+				close(resultSet);
+				close(statement);
+				if (streamTransaction != null) {
+					if (failed[0]) {
+						streamTransaction.rollback();
+					} else {
+						streamTransaction.commit();
 					}
-					out.add(row);
 				}
+			});
+
+		} catch (SQLException | RuntimeException e) {
+			close(rs);
+			close(state);
+			if (ownTransaction != null) {
+				ownTransaction.rollback();
 			}
 
-		} catch (InstantiationException | IllegalAccessException | SQLException | IllegalArgumentException
-				| InvocationTargetException | NoSuchMethodException | SecurityException e) {
-			ImanitySqlException dbe = new ImanitySqlException(e);
+			ImanitySqlException dbe = e instanceof ImanitySqlException ? (ImanitySqlException) e : new ImanitySqlException(e);
 			dbe.setSql(sql);
 			throw dbe;
-		} finally {
-			close(state);
-			close(con);
 		}
+	}
 
-		return out;
+	private PreparedStatement prepareSelect(Connection con) throws SQLException {
+		PreparedStatement state = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+		if (limit > 0) {
+			state.setMaxRows(limit);
+		}
+		// negative only for a dialect that streams with Integer.MIN_VALUE
+		if (fetchSize != 0) {
+			state.setFetchSize(fetchSize);
+		}
+		loadArgs(state);
+		return state;
+	}
+
+	/**
+	 * How the current row is turned into a clazz: Maps get every column by label,
+	 * primitives and jdbc types get the first column, pojos go through the
+	 * builder's cached {@link RowMapper}.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> RowReader<T> rowReader(Class<T> clazz) throws SQLException {
+		if (Map.class.isAssignableFrom(clazz)) {
+			int colCount = metaData.getColumnCount();
+			String[] columnNames = new String[colCount];
+			for (int i = 0; i < colCount; i++) {
+				columnNames[i] = metaData.getColumnLabel(i + 1);
+			}
+
+			return resultSet -> {
+				Map<String, Object> map;
+				if (clazz.equals(Map.class)) {
+					map = new HashMap<>();
+				} else {
+					try {
+						map = (Map<String, Object>) clazz.getDeclaredConstructor().newInstance();
+					} catch (ReflectiveOperationException e) {
+						throw new ImanitySqlException(e);
+					}
+				}
+
+				for (int i = 0; i < colCount; i++) {
+					map.put(columnNames[i], resultSet.getObject(i + 1));
+				}
+				return (T) map;
+			};
+		}
+
+		if (SQLUtil.isPrimitiveOrString(clazz) || clazz.getPackage().getName().startsWith("java.sql")) {
+			// if the receiver class is a primitive or jdbc type just grab the first column
+			// and assign it
+			return resultSet -> (T) resultSet.getObject(1);
+		}
+
+		return sqlStatementBuilder.getRowMapper(clazz, metaData)::map;
+	}
+
+	private interface RowReader<T> {
+		T read(ResultSet resultSet) throws SQLException;
 	}
 
 	private void loadArgs(PreparedStatement state) throws SQLException {
@@ -356,6 +480,89 @@ public class Query {
 		return this;
 	}
 
+	/**
+	 * Upsert many rows of the same type, {@code batchSize} rows per round trip.
+	 * Dialects that can express a multi-row upsert get a single statement per
+	 * chunk, everything else goes through a JDBC batch. Should be called within a
+	 * transaction so the whole write commits or rolls back together. Returns the
+	 * number of rows affected as reported by the driver.
+	 */
+	public int upsertAll(List<?> rows, int batchSize) {
+		if (rows.isEmpty()) {
+			return 0;
+		}
+		batchSize = Math.max(1, batchSize);
+
+		int total = 0;
+		for (int from = 0; from < rows.size(); from += batchSize) {
+			List<?> chunk = rows.subList(from, Math.min(rows.size(), from + batchSize));
+
+			String multiRowSql = sqlStatementBuilder.getMultiUpsertSql(this, chunk);
+			if (multiRowSql != null) {
+				List<Object> multiRowArgs = new ArrayList<>();
+				for (Object row : chunk) {
+					Collections.addAll(multiRowArgs, sqlStatementBuilder.getUpsertArgs(this, row));
+				}
+
+				sql = multiRowSql;
+				args = multiRowArgs.toArray();
+				total += execute().getRowsAffected();
+			} else {
+				List<Object[]> batchArgs = new ArrayList<>(chunk.size());
+				for (Object row : chunk) {
+					batchArgs.add(sqlStatementBuilder.getUpsertArgs(this, row));
+				}
+
+				sql = sqlStatementBuilder.getUpsertSql(this, chunk.get(0));
+				total += executeBatch(batchArgs);
+			}
+		}
+
+		rowsAffected = total;
+		return total;
+	}
+
+	/**
+	 * Delete the rows of the given type matching the primary keys, using one
+	 * "where id in (...)" statement per {@code batchSize} ids. Returns the number
+	 * of rows deleted.
+	 */
+	public int deleteAllById(Class<?> type, List<?> ids, int batchSize) {
+		if (ids.isEmpty()) {
+			return 0;
+		}
+		batchSize = Math.max(1, batchSize);
+
+		PojoInfo info = sqlStatementBuilder.getPojoInfo(type);
+		String primaryKeyName = info.getPrimaryKeyName();
+		if (primaryKeyName == null) {
+			throw new ImanitySqlException("No primary key specified in the row. Use the @Id annotation.");
+		}
+		Property primaryKey = info.getProperty(primaryKeyName);
+
+		String table = getTable();
+		if (table == null) {
+			table = info.getTable();
+		}
+
+		int total = 0;
+		for (int from = 0; from < ids.size(); from += batchSize) {
+			List<?> chunk = ids.subList(from, Math.min(ids.size(), from + batchSize));
+
+			Object[] idArgs = new Object[chunk.size()];
+			for (int i = 0; i < idArgs.length; i++) {
+				idArgs[i] = info.toReadableValue(primaryKey, chunk.get(i));
+			}
+
+			sql = "delete from " + table + " where " + primaryKeyName + " in (" + SQLUtil.getQuestionMarks(idArgs.length) + ")";
+			args = idArgs;
+			total += execute().getRowsAffected();
+		}
+
+		rowsAffected = total;
+		return total;
+	}
+
 	/**
 	 * Update a row in a table. It will match an existing row based on the primary
 	 * key.
@@ -398,21 +605,7 @@ public class Query {
 				state = localCon.prepareStatement(sql);
 			}
 
-			if (args != null) {
-				for (int i = 0; i < args.length; i++) {
-					Object arg = args[i];
-
-					/*
-					 * The purpose of this is to allow List args to be inserted into JDBC array
-					 * fields. Postgres JDBC drivers do not handle this correctly.
-					 */
-					if (arg != null && List.class.isAssignableFrom(arg.getClass())) {
-						arg = ((List<?>) arg).toArray();
-					}
-
-					state.setObject(i + 1, arg);
-				}
-			}
+			bindArgs(state, args);
 
 			rowsAffected = state.executeUpdate();
 
@@ -432,6 +625,73 @@ public class Query {
 		return this;
 	}
 
+	/**
+	 * Execute the current sql once per argument set as a single JDBC batch.
+	 * Drivers that rewrite batches (MySQL with rewriteBatchedStatements, Postgres
+	 * with reWriteBatchedInserts) report {@link Statement#SUCCESS_NO_INFO}; those
+	 * entries are counted as one row each.
+	 */
+	private int executeBatch(List<Object[]> batchArgs) {
+
+		Connection con = null;
+		PreparedStatement state = null;
+
+		try {
+
+			Connection localCon;
+			if (transaction == null) {
+				localCon = factory.connection();
+				con = localCon; // con gets closed below if non-null
+			} else {
+				localCon = transaction.getConnection();
+			}
+
+			state = localCon.prepareStatement(sql);
+			for (Object[] batchArg : batchArgs) {
+				bindArgs(state, batchArg);
+				state.addBatch();
+			}
+
+			int affected = 0;
+			for (int count : state.executeBatch()) {
+				if (count >= 0) {
+					affected += count;
+				} else if (count == Statement.SUCCESS_NO_INFO) {
+					affected++;
+				}
+			}
+			rowsAffected = affected;
+
+		} catch (SQLException | IllegalArgumentException e) {
+			ImanitySqlException dbe = new ImanitySqlException(e);
+			dbe.setSql(sql);
+			throw dbe;
+		} finally {
+			close(state);
+			close(con);
+		}
+
+		return rowsAffected;
+	}
+
+	private void bindArgs(PreparedStatement state, Object[] args) throws SQLException {
+		if (args != null) {
+			for (int i = 0; i < args.length; i++) {
+				Object arg = args[i];
+
+				/*
+				 * The purpose of this is to allow List args to be inserted into JDBC array
+				 * fields. Postgres JDBC drivers do not handle this correctly.
+				 */
+				if (arg != null && List.class.isAssignableFrom(arg.getClass())) {
+					arg = ((List<?>) arg).toArray();
+				}
+
+				state.setObject(i + 1, arg);
+			}
+		}
+	}
+
 	@SuppressWarnings("unchecked")
 	private void populateGeneratedKeys(PreparedStatement state, Object generatedKeyReceiver,
 			String[] generatedKeyNames) {
@@ -0,0 +1,183 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Imanity
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package org.imanity.framework.mysql.pojo;
+
+import org.imanity.framework.mysql.ImanitySqlException;
+import org.imanity.framework.mysql.pojo.info.StandardPojoInfo;
+import org.imanity.framework.mysql.pojo.statement.SqlStatementBuilder;
+import org.imanity.framework.util.AccessUtil;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Maps rows of one result set shape into pojos. Column labels are resolved to
+ * properties once when the mapper is built, and values are written through
+ * method handles instead of a name lookup and a reflective set per column.
+ */
+public class RowMapper<T> {
+
+	private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+	private final SqlStatementBuilder sqlStatementBuilder;
+	private final StandardPojoInfo pojoInfo;
+	private final MethodHandle constructor;
+
+	// indexed by column - 1, null where the column has no matching property
+	private final Property[] properties;
+	private final MethodHandle[] setters;
+	private final String[] columnTypeNames;
+
+	public RowMapper(Shape shape, StandardPojoInfo pojoInfo, SqlStatementBuilder sqlStatementBuilder) {
+		this.sqlStatementBuilder = sqlStatementBuilder;
+		this.pojoInfo = pojoInfo;
+		this.columnTypeNames = shape.columnTypeNames;
+
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		try {
+			this.constructor = lookup.unreflectConstructor(AccessUtil.setAccessible(shape.rowClass.getDeclaredConstructor()))
+					.asType(CONSTRUCTOR_TYPE);
+		} catch (ReflectiveOperationException e) {
+			throw new ImanitySqlException(e);
+		}
+
+		int columnCount = shape.columnLabels.length;
+		this.properties = new Property[columnCount];
+		this.setters = new MethodHandle[columnCount];
+
+		for (int i = 0; i < columnCount; i++) {
+			Property property = pojoInfo.getPropertyMap().get(shape.columnLabels[i].toUpperCase());
+			if (property == null) {
+				continue;
+			}
+
+			this.properties[i] = property;
+			try {
+				if (property.getWriteMethod() != null) {
+					this.setters[i] = lookup.unreflect(AccessUtil.setAccessible(property.getWriteMethod())).asType(SETTER_TYPE);
+				} else if (property.getField() != null) {
+					this.setters[i] = lookup.unreflectSetter(property.getField()).asType(SETTER_TYPE);
+				}
+			} catch (ReflectiveOperationException ignored) {
+				// leave it to StandardPojoInfo.putValue below
+			}
+		}
+	}
+
+	/**
+	 * Map the row the result set currently points at.
+	 */
+	@SuppressWarnings("unchecked")
+	public T map(ResultSet resultSet) throws SQLException {
+		T row;
+		try {
+			row = (T) this.constructor.invokeExact();
+		} catch (Throwable throwable) {
+			throw new ImanitySqlException(throwable);
+		}
+
+		for (int i = 0; i < this.properties.length; i++) {
+			Property property = this.properties[i];
+			if (property == null) {
+				continue;
+			}
+
+			Object value = this.sqlStatementBuilder.convertValue(resultSet.getObject(i + 1), this.columnTypeNames[i]);
+
+			MethodHandle setter = this.setters[i];
+			if (setter == null) {
+				this.pojoInfo.putValue(row, property.getName(), value);
+				continue;
+			}
+
+			value = this.pojoInfo.toJavaValue(property, value);
+			try {
+				setter.invokeExact((Object) row, value);
+			} catch (Throwable throwable) {
+				throw new ImanitySqlException("Could not set value into pojo. Property: " + property.getName() + " value: " + value, throwable);
+			}
+		}
+
+		return row;
+	}
+
+	/**
+	 * The pojo class together with the labels and types of the result set
+	 * columns, the cache key for mappers.
+	 */
+	public static class Shape {
+
+		private final Class<?> rowClass;
+		private final String[] columnLabels;
+		private final String[] columnTypeNames;
+		private final int hashCode;
+
+		private Shape(Class<?> rowClass, String[] columnLabels, String[] columnTypeNames) {
+			this.rowClass = rowClass;
+			this.columnLabels = columnLabels;
+			this.columnTypeNames = columnTypeNames;
+			this.hashCode = 31 * (31 * rowClass.hashCode() + Arrays.hashCode(columnLabels)) + Arrays.hashCode(columnTypeNames);
+		}
+
+		public static Shape of(Class<?> rowClass, ResultSetMetaData metaData) throws SQLException {
+			int columnCount = metaData.getColumnCount();
+			String[] columnLabels = new String[columnCount];
+			String[] columnTypeNames = new String[columnCount];
+			for (int i = 0; i < columnCount; i++) {
+				columnLabels[i] = metaData.getColumnLabel(i + 1);
+				columnTypeNames[i] = metaData.getColumnTypeName(i + 1);
+			}
+			return new Shape(rowClass, columnLabels, columnTypeNames);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof Shape)) {
+				return false;
+			}
+			Shape shape = (Shape) o;
+			return hashCode == shape.hashCode
+					&& rowClass == shape.rowClass
+					&& Arrays.equals(columnLabels, shape.columnLabels)
+					&& Arrays.equals(columnTypeNames, shape.columnTypeNames);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+
+}
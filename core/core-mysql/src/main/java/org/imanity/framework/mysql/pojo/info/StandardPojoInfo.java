@@ -280,14 +280,7 @@ public class StandardPojoInfo implements PojoInfo {
 			throw new ImanitySqlException("No such field: " + name);
 		}
 
-		if (value != null) {
-			if (prop.getSerializer() != null) {
-				value = prop.getSerializer().deserialize(value);
-				
-			} else if (prop.isEnumField()) {
-				value = getEnumConst(prop.getEnumClass(), prop.getEnumType(), value);
-			}
-		}
+		value = this.toJavaValue(prop, value);
 
 		if (prop.getWriteMethod() != null) {
 			try {
@@ -312,6 +305,23 @@ public class StandardPojoInfo implements PojoInfo {
 
 	}
 
+	/**
+	 * The reverse of {@link #toReadableValue(Property, Object)}, turns a column
+	 * value into the value the property holds.
+	 */
+	public Object toJavaValue(Property prop, Object value) {
+		if (value != null) {
+			if (prop.getSerializer() != null) {
+				value = prop.getSerializer().deserialize(value);
+
+			} else if (prop.isEnumField()) {
+				value = getEnumConst(prop.getEnumClass(), prop.getEnumType(), value);
+			}
+		}
+
+		return value;
+	}
+
 	/**
 	 * Convert a string to an enum const of the appropriate class.
 	 */
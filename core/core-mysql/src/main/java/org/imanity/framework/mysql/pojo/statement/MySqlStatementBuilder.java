@@ -99,4 +99,20 @@ public class MySqlStatementBuilder extends StandardSqlStatementBuilder {
 		return value;
 	}
 
+	/**
+	 * Connector/J ignores a positive fetch size unless useCursorFetch is on and
+	 * reads the whole result set into memory, Integer.MIN_VALUE on a forward-only,
+	 * read-only statement makes it stream the rows one by one instead.
+	 */
+	@Override
+	public int getStreamingFetchSize(int fetchSize) {
+		return Integer.MIN_VALUE;
+	}
+
+	@Override
+	protected void appendLimit(StringBuilder out, int limit) {
+		out.append(" limit ");
+		out.append(limit);
+	}
+
 }
@@ -24,13 +24,113 @@
 
 package org.imanity.framework.mysql.pojo.statement;
 
+import org.imanity.framework.mysql.ImanitySqlException;
 import org.imanity.framework.mysql.pojo.Property;
+import org.imanity.framework.mysql.pojo.Query;
 import org.imanity.framework.mysql.pojo.info.StandardPojoInfo;
+import org.imanity.framework.mysql.util.SQLUtil;
 
 import javax.persistence.Column;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 public class PostgresStatementBuilder extends StandardSqlStatementBuilder {
 
+	// the wire protocol caps bind parameters per statement at a signed 16 bit count
+	private static final int MAX_BIND_PARAMETERS = Short.MAX_VALUE;
+
+	@Override
+	public String getUpsertSql(Query query, Object row) {
+		StandardPojoInfo pojoInfo = getPojoInfo(row.getClass());
+		if (pojoInfo.getUpsertSql() == null) {
+			throw new ImanitySqlException("No primary key specified in the row. Use the @Id annotation.");
+		}
+		return pojoInfo.getUpsertSql();
+	}
+
+	@Override
+	public Object[] getUpsertArgs(Query query, Object row) {
+		// the conflict clause reads from excluded.*, so the args are the insert args
+		return super.getInsertArgs(query, row);
+	}
+
+	@Override
+	public String getMultiUpsertSql(Query query, List<?> rows) {
+		StandardPojoInfo pojoInfo = getPojoInfo(rows.get(0).getClass());
+		String primaryKeyName = pojoInfo.getPrimaryKeyName();
+		int argCount = pojoInfo.getInsertSqlArgCount();
+
+		if (primaryKeyName == null || rows.size() < 2 || argCount == 0 || (long) argCount * rows.size() > MAX_BIND_PARAMETERS) {
+			return null;
+		}
+
+		// "on conflict do update" refuses to touch the same row twice in one statement
+		Set<Object> keys = new HashSet<>();
+		for (Object row : rows) {
+			if (!keys.add(pojoInfo.getValue(row, primaryKeyName))) {
+				return null;
+			}
+		}
+
+		String values = "(" + SQLUtil.getQuestionMarks(argCount) + ")";
+
+		StringBuilder buf = new StringBuilder();
+		buf.append("insert into ");
+		buf.append(pojoInfo.getTable());
+		buf.append(" (");
+		buf.append(SQLUtil.join(pojoInfo.getInsertColumnNames()));
+		buf.append(") values ");
+		for (int i = 0; i < rows.size(); i++) {
+			if (i > 0) {
+				buf.append(',');
+			}
+			buf.append(values);
+		}
+		buf.append(getConflictClause(pojoInfo));
+
+		return buf.toString();
+	}
+
+	@Override
+	public void makeUpsertSql(StandardPojoInfo pojoInfo) {
+
+		// INSERT INTO table (a,b,c) VALUES (1,2,3) ON CONFLICT (a) DO UPDATE SET b=excluded.b,c=excluded.c;
+
+		if (pojoInfo.getPrimaryKeyName() == null) {
+			return;
+		}
+
+		pojoInfo.setUpsertSql(pojoInfo.getInsertSql() + getConflictClause(pojoInfo));
+	}
+
+	private String getConflictClause(StandardPojoInfo pojoInfo) {
+		String primaryKeyName = pojoInfo.getPrimaryKeyName();
+
+		StringBuilder buf = new StringBuilder();
+		buf.append(" on conflict (");
+		buf.append(primaryKeyName);
+		buf.append(")");
+
+		boolean first = true;
+		for (String colName : pojoInfo.getInsertColumnNames()) {
+			if (colName.equalsIgnoreCase(primaryKeyName)) {
+				continue;
+			}
+			buf.append(first ? " do update set " : ",");
+			first = false;
+
+			buf.append(colName);
+			buf.append("=excluded.");
+			buf.append(colName);
+		}
+
+		if (first) {
+			buf.append(" do nothing");
+		}
+		return buf.toString();
+	}
+
 	@Override
 	public String getCreateTableSql(Class<?> clazz) {
 		
@@ -98,5 +198,10 @@ public class PostgresStatementBuilder extends StandardSqlStatementBuilder {
 		return buf.toString();
 	}
 
+	@Override
+	protected void appendLimit(StringBuilder out, int limit) {
+		out.append(" limit ");
+		out.append(limit);
+	}
 
 }
@@ -26,6 +26,11 @@ package org.imanity.framework.mysql.pojo.statement;
 
 import org.imanity.framework.mysql.pojo.info.PojoInfo;
 import org.imanity.framework.mysql.pojo.Query;
+import org.imanity.framework.mysql.pojo.RowMapper;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.List;
 
 public interface SqlStatementBuilder {
 	
@@ -40,12 +45,31 @@ public interface SqlStatementBuilder {
 
 	public String getUpsertSql(Query query, Object row);
 	public Object[] getUpsertArgs(Query query, Object row);
+
+	/**
+	 * A single statement upserting all of the given rows, whose args are the
+	 * upsert args of each row in order, or null if the dialect can't express one
+	 * and the rows should be sent as a JDBC batch of single-row upserts instead.
+	 */
+	public String getMultiUpsertSql(Query query, List<?> rows);
 	
 	public String getSelectSql(Query query, Class<?> rowClass);
 	public String getCreateTableSql(Class<?> clazz);
 	
 	public PojoInfo getPojoInfo(Class<?> rowClass);
 
+	/**
+	 * The mapper for rows of rowClass in result sets shaped like metaData, built
+	 * once per shape and reused.
+	 */
+	public <T> RowMapper<T> getRowMapper(Class<T> rowClass, ResultSetMetaData metaData) throws SQLException;
+
 	public Object convertValue(Object value, String columnTypeName);
 
+	/**
+	 * The fetch size to give the statement of a streamed select so the driver
+	 * reads the rows as they are consumed instead of all up front.
+	 */
+	public int getStreamingFetchSize(int fetchSize);
+
 }
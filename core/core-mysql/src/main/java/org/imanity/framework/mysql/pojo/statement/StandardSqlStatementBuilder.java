@@ -29,14 +29,18 @@ import org.apache.logging.log4j.Logger;
 import org.imanity.framework.mysql.ImanitySqlException;
 import org.imanity.framework.mysql.pojo.Property;
 import org.imanity.framework.mysql.pojo.Query;
+import org.imanity.framework.mysql.pojo.RowMapper;
 import org.imanity.framework.mysql.pojo.Where;
 import org.imanity.framework.mysql.pojo.info.StandardPojoInfo;
 import org.imanity.framework.mysql.util.SQLUtil;
 
 import javax.persistence.Column;
 import java.math.BigDecimal;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -47,6 +51,10 @@ public class StandardSqlStatementBuilder implements SqlStatementBuilder {
 	private static final Logger LOGGER = LogManager.getLogger(StandardSqlStatementBuilder.class);
 	private static final ConcurrentHashMap<Class<?>, StandardPojoInfo> POJOS = new ConcurrentHashMap<>();
 
+	// keyed by builder class too since the mappers call back into convertValue,
+	// builders are stateless and created per query so instances can't hold it
+	private static final ConcurrentHashMap<Class<?>, ConcurrentHashMap<RowMapper.Shape, RowMapper<?>>> ROW_MAPPERS = new ConcurrentHashMap<>();
+
 	public StandardPojoInfo getPojoInfo(Class<?> rowClass) {
 		StandardPojoInfo pi = POJOS.get(rowClass);
 		if (pi == null) {
@@ -60,8 +68,20 @@ public class StandardSqlStatementBuilder implements SqlStatementBuilder {
 		}
 		return pi;
 	}
-	
-	
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> RowMapper<T> getRowMapper(Class<T> rowClass, ResultSetMetaData metaData) throws SQLException {
+		ConcurrentHashMap<RowMapper.Shape, RowMapper<?>> rowMappers = ROW_MAPPERS.computeIfAbsent(getClass(), key -> new ConcurrentHashMap<>());
+
+		RowMapper.Shape shape = RowMapper.Shape.of(rowClass, metaData);
+		RowMapper<?> rowMapper = rowMappers.get(shape);
+		if (rowMapper == null) {
+			rowMapper = rowMappers.computeIfAbsent(shape, key -> new RowMapper<>(key, getPojoInfo(rowClass), this));
+		}
+		return (RowMapper<T>) rowMapper;
+	}
+
 	@Override
 	public String getInsertSql(Query query, Object row) {
 		StandardPojoInfo pojoInfo = getPojoInfo(row.getClass());
@@ -236,9 +256,21 @@ public class StandardSqlStatementBuilder implements SqlStatementBuilder {
 			out.append(" order by ");
 			out.append(orderBy);
 		}
+		if (query.getLimit() > 0) {
+			appendLimit(out, query.getLimit());
+		}
 		return out.toString();
 	}
 
+	/**
+	 * Append a clause capping the select at limit rows, ANSI by default.
+	 */
+	protected void appendLimit(StringBuilder out, int limit) {
+		out.append(" fetch first ");
+		out.append(limit);
+		out.append(" rows only");
+	}
+
 
 	@Override
 	public String getCreateTableSql(Class<?> clazz) {
@@ -381,5 +413,16 @@ public class StandardSqlStatementBuilder implements SqlStatementBuilder {
 	}
 
 
+	@Override
+	public String getMultiUpsertSql(Query query, List<?> rows) {
+		return null;
+	}
+
+	@Override
+	public int getStreamingFetchSize(int fetchSize) {
+		return fetchSize;
+	}
+
+
 
 }
@@ -32,6 +32,7 @@ import java.io.Serializable;
 import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Getter
 public abstract class ConfigurableRepository<T, ID extends Serializable> implements Repository<T, ID> {
@@ -105,6 +106,11 @@ public abstract class ConfigurableRepository<T, ID extends Serializable> impleme
         return this.repository.save(pojo);
     }
 
+    @Override
+    public <S extends T> Iterable<S> saveAll(Iterable<S> pojoIterable) {
+        return this.repository.saveAll(pojoIterable);
+    }
+
     @Override
     public Optional<T> findById(ID id) {
         return this.repository.findById(id);
@@ -125,6 +131,11 @@ public abstract class ConfigurableRepository<T, ID extends Serializable> impleme
         return this.repository.findAll();
     }
 
+    @Override
+    public Stream<T> streamAll() {
+        return this.repository.streamAll();
+    }
+
     @Override
     public Iterable<T> findAllById(List<ID> ids) {
         return this.repository.findAllById(ids);
@@ -140,6 +151,11 @@ public abstract class ConfigurableRepository<T, ID extends Serializable> impleme
         this.repository.deleteById(id);
     }
 
+    @Override
+    public long deleteAllById(List<ID> ids) {
+        return this.repository.deleteAllById(ids);
+    }
+
     @Override
     public <Q> void deleteByQuery(String query, Q value) {
         this.repository.deleteByQuery(query, value);
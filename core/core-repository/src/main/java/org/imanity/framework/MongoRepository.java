@@ -113,6 +113,14 @@ public abstract class MongoRepository<T, ID extends Serializable> implements Rep
         this.collection.removeById(id);
     }
 
+    @Override
+    public long deleteAllById(List<ID> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return this.collection.deleteMany(this.collection.createIdInQuery(ids)).getDeletedCount();
+    }
+
     @Override
     public <Q> void deleteByQuery(String query, Q value) {
         this.collection.deleteMany(Filters.eq(query, value));
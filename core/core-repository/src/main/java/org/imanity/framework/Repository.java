@@ -27,6 +27,8 @@ package org.imanity.framework;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @DisallowAnnotation(value = PreInitialize.class)
 @ServiceDependency(dependencies = {"mongo", "sql"})
@@ -51,12 +53,31 @@ public interface Repository<T, ID extends Serializable> {
 
     Iterable<T> findAll();
 
+    /**
+     * Stream every entity without loading them all at once where the backend
+     * supports it. Close the stream when done with it.
+     */
+    default Stream<T> streamAll() {
+        return StreamSupport.stream(this.findAll().spliterator(), false);
+    }
+
     Iterable<T> findAllById(List<ID> ids);
 
     long count();
 
     void deleteById(ID id);
 
+    /**
+     * Delete every entity with one of the given ids.
+     *
+     * @return the number of entities deleted, the default implementation can only
+     * report how many ids it was given
+     */
+    default long deleteAllById(List<ID> ids) {
+        ids.forEach(this::deleteById);
+        return ids.size();
+    }
+
     <Q> void deleteByQuery(String query, Q value);
 
     void deleteAll();
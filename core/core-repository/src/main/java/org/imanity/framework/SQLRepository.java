@@ -27,17 +27,23 @@ package org.imanity.framework;
 import org.imanity.framework.mysql.SqlService;
 import org.imanity.framework.mysql.Session;
 import org.imanity.framework.mysql.connection.AbstractConnectionFactory;
+import org.imanity.framework.mysql.pojo.Query;
 import org.imanity.framework.mysql.pojo.Transaction;
+import org.imanity.framework.mysql.pojo.info.PojoInfo;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 public abstract class SQLRepository<T, ID extends Serializable> implements Repository<T, ID> {
 
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
     private RepositoryType type;
     private AbstractConnectionFactory factory;
 
@@ -109,6 +115,51 @@ public abstract class SQLRepository<T, ID extends Serializable> implements Repos
         return pojo;
     }
 
+    /**
+     * Saves every pojo inside one transaction, batchSize() rows per round trip.
+     * A failed batch is rolled back and rethrown so the caller can retry it.
+     */
+    @Override
+    public <S extends T> Iterable<S> saveAll(Iterable<S> pojoIterable) {
+        this.upsertAll(pojoIterable);
+        return pojoIterable;
+    }
+
+    /**
+     * Same as {@link #saveAll(Iterable)} but returns the number of rows affected
+     * as reported by the driver.
+     */
+    public <S extends T> int upsertAll(Iterable<S> pojoIterable) {
+        List<S> pojos = new ArrayList<>();
+        pojoIterable.forEach(pojos::add);
+        if (pojos.isEmpty()) {
+            return 0;
+        }
+
+        return this.performBatch(session -> session.upsertAll(pojos, this.batchSize()));
+    }
+
+    /*
+     * Runs a batch write in its own transaction, unlike performSessionResult a
+     * failure is rolled back and rethrown instead of being read as 0 rows
+     */
+    private int performBatch(Function<Session, Integer> batch) {
+        if (this.factory == null) {
+            throw new IllegalArgumentException("Attempt to perform action before repository initialized!");
+        }
+
+        Transaction transaction = this.factory.startTransaction();
+        try {
+            int affected = batch.apply(this.factory.session(transaction));
+
+            transaction.commit();
+            return affected;
+        } catch (Throwable throwable) {
+            transaction.rollback();
+            throw throwable;
+        }
+    }
+
     @Override
     public Optional<T> findById(ID id) {
         return Optional.ofNullable(this.performSessionResult(session -> session.find(this.type(), id)));
@@ -129,6 +180,63 @@ public abstract class SQLRepository<T, ID extends Serializable> implements Repos
         return this.performSessionResult(session -> session.results(this.type()));
     }
 
+    /**
+     * Streams the table through a forward-only cursor, fetchSize() rows at a
+     * time or row by row on MySQL. The connection is held until the stream is closed.
+     */
+    @Override
+    public Stream<T> streamAll() {
+        if (this.factory == null) {
+            throw new IllegalArgumentException("Attempt to perform action before repository initialized!");
+        }
+
+        return this.factory.query()
+                .fetchSize(this.fetchSize())
+                .stream(this.type());
+    }
+
+    /**
+     * Walks the whole table in primary key order, pageSize rows at a time, each
+     * page read in its own short transaction. Pages are located by the last key
+     * seen rather than an offset, so late pages cost as much as early ones.
+     *
+     * A page that fails to load is rolled back and rethrown, the walk never ends early silently.
+     */
+    public void forEachPage(int pageSize, Consumer<List<T>> pageConsumer) {
+        PojoInfo pojoInfo = this.factory.builder().getPojoInfo(this.type());
+        String primaryKeyName = pojoInfo.getPrimaryKeyName();
+        if (primaryKeyName == null) {
+            throw new IllegalStateException("Keyset pagination requires an @Id on " + this.type().getName());
+        }
+
+        Object lastKey = null;
+        while (true) {
+            List<T> page;
+            Transaction transaction = this.factory.startTransaction();
+            try {
+                page = this.factory.session(transaction).query()
+                        .keyset(primaryKeyName, lastKey, pageSize)
+                        .results(this.type());
+
+                transaction.commit();
+            } catch (Throwable throwable) {
+                transaction.rollback();
+                throw throwable;
+            }
+
+            if (page.isEmpty()) {
+                return;
+            }
+
+            pageConsumer.accept(page);
+
+            if (page.size() < pageSize) {
+                return;
+            }
+            lastKey = pojoInfo.getValue(page.get(page.size() - 1), primaryKeyName);
+        }
+    }
+
     @Override
     public Iterable<T> findAllById(List<ID> ids) {
         return this.performSessionResult(session -> session.query().byMultipleIds(this.type(), ids).results(this.type()));
@@ -144,6 +252,15 @@ public abstract class SQLRepository<T, ID extends Serializable> implements Repos
         this.performSession(session -> session.delete(id));
     }
 
+    @Override
+    public long deleteAllById(List<ID> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        return this.performBatch(session -> session.deleteAllById(this.type(), ids, this.batchSize()));
+    }
+
     @Override
     public <Q> void deleteByQuery(String queryName, Q value) {
         this.performSession(session -> session.query()
@@ -156,5 +273,19 @@ public abstract class SQLRepository<T, ID extends Serializable> implements Repos
         this.performSession(session -> session.query().delete());
     }
 
+    /**
+     * The number of rows saveAll and deleteAllById send per statement or batch.
+     */
+    protected int batchSize() {
+        return DEFAULT_BATCH_SIZE;
+    }
+
+    /**
+     * The number of rows streamAll fetches per round trip.
+     */
+    protected int fetchSize() {
+        return Query.DEFAULT_FETCH_SIZE;
+    }
+
 
 }